@@ -0,0 +1,104 @@
+package com.sadi.backend.configs;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+
+import java.lang.reflect.Constructor;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost once Firebase has verified a token: mapping it to a {@link Jwt},
+ * the token cache hit path, and turning the Jwt into the security context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtDecodingBenchmark {
+    private FirebaseApp firebaseApp;
+    private FirebaseJwtDecoder decoder;
+    private FirebaseToken firebaseToken;
+    private JwtAuthenticationConverter converter;
+    private String token;
+    private Jwt jwt;
+
+    @Setup
+    public void setUp() throws Exception {
+        firebaseApp = FirebaseApp.initializeApp(FirebaseOptions.builder()
+                .setCredentials(GoogleCredentials.create(new AccessToken("benchmark", null)))
+                .setProjectId("benchmark")
+                .build(), "jwt-benchmark");
+        FirebaseTokenCache tokenCache = new FirebaseTokenCache(10_000, Duration.ofMinutes(5), new SimpleMeterRegistry());
+        decoder = new FirebaseJwtDecoder(firebaseApp, tokenCache, false, new SimpleMeterRegistry());
+        converter = new JwtAuthenticationConverter();
+
+        long now = Instant.now().getEpochSecond();
+        String uid = "6uGEoUSyILUlVrKhogKdCvnDWaN2";
+        Map<String, Object> claims = Map.of(
+                "sub", uid,
+                "user_id", uid,
+                "iss", "https://securetoken.google.com/benchmark",
+                "aud", "benchmark",
+                "iat", now,
+                "exp", now + 3600,
+                "auth_time", now,
+                "email", "2005077@ugrad.cse.buet.ac.bd",
+                "email_verified", false,
+                "scp", "USER"
+        );
+        Constructor<FirebaseToken> constructor = FirebaseToken.class.getDeclaredConstructor(Map.class);
+        constructor.setAccessible(true);
+        firebaseToken = constructor.newInstance(claims);
+
+        // Firebase ID tokens are roughly 900 characters of base64url
+        byte[] raw = new byte[660];
+        new Random(7).nextBytes(raw);
+        String encoded = Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+        token = encoded.substring(0, 100) + "." + encoded.substring(100, 700) + "." + encoded.substring(700);
+
+        jwt = decoder.createJwt(firebaseToken, token);
+        tokenCache.put(token, jwt);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        firebaseApp.delete();
+    }
+
+    @Benchmark
+    public Jwt createJwt() {
+        return decoder.createJwt(firebaseToken, token);
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return decoder.decode(token);
+    }
+
+    @Benchmark
+    public String buildSecurityContext() {
+        AbstractAuthenticationToken authentication = converter.convert(jwt);
+        SecurityContextHolder.setContext(new SecurityContextImpl(authentication));
+        String name = SecurityContextHolder.getContext().getAuthentication().getName();
+        SecurityContextHolder.clearContext();
+        return name;
+    }
+}
@@ -0,0 +1,157 @@
+package com.sadi.backend.dtos;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sadi.backend.configs.BinaryFormatsConfig;
+import com.sadi.backend.dtos.responses.ContentFullResponse;
+import com.sadi.backend.dtos.responses.ContentShortResponse;
+import com.sadi.backend.dtos.responses.ProjectShortResponse;
+import com.sadi.backend.dtos.responses.UserLeaderboardDto;
+import com.sadi.backend.enums.ProjectType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response serialization with the mapper settings Spring Boot applies, for a feed page and for a full
+ * post with a markdown body of mixed Bengali and English text, in JSON and in the binary formats served
+ * on request. The setup prints each list payload's size raw and gzipped, which is what goes on the wire.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    private static final String[] PARAGRAPHS = {
+            "## Getting started\n\nSpring Boot picks sensible defaults, so most services need little configuration. ",
+            "বাংলাদেশের শিক্ষার্থীদের জন্য এই লেখাটি প্রোগ্রামিং শেখার একটি সহজ পথ দেখায়। ",
+            "```java\nrecord Point(int x, int y) {}\n```\n",
+            "- keep functions small\n- name things clearly\n- measure before optimizing\n",
+            "ডাটাবেস ইনডেক্স ঠিকমতো না থাকলে প্রতিটি অনুরোধে পুরো টেবিল পড়তে হয়। ",
+    };
+
+    @Param({"2048", "16384", "131072"})
+    public int bodyLength;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private PagedModel<ContentShortResponse> page;
+    private PagedModel<ProjectShortResponse> projectPage;
+    private PagedModel<UserLeaderboardDto> leaderboardPage;
+    private ContentFullResponse fullResponse;
+
+    @Setup
+    public void setUp(BenchmarkParams params) throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper = switch (format) {
+            case "CBOR" -> BinaryFormatsConfig.cborMapper(builder);
+            case "SMILE" -> BinaryFormatsConfig.smileMapper(builder);
+            default -> builder.build();
+        };
+
+        Random random = new Random(11);
+        Instant now = Instant.now();
+        List<ContentShortResponse> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new ContentShortResponse(UUID.randomUUID(), "topic-" + random.nextInt(20),
+                    "How we cut feed latency in half, part " + i, random.nextBoolean() ? UUID.randomUUID() : null,
+                    "6uGEoUSyILUlVrKhogKdCvnDWaN" + i, "author" + i, "https://example.com/avatars/" + i + ".png",
+                    "https://example.com/covers/" + i + ".png", text(random, 240), random.nextInt(5000),
+                    now.minus(random.nextInt(10_000), ChronoUnit.MINUTES), 40 * random.nextDouble()));
+        }
+        page = new PagedModel<>(new PageImpl<>(rows, PageRequest.of(3, 10), 12_345));
+
+        List<ProjectShortResponse> projects = new ArrayList<>();
+        List<UserLeaderboardDto> standings = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int author = random.nextInt(5);
+            projects.add(new ProjectShortResponse(UUID.randomUUID(), "Need help with a small Android project " + i,
+                    "6uGEoUSyILUlVrKhogKdCvnDWaN" + author, "author" + author,
+                    "https://example.com/avatars/" + author + ".png", now.minus(random.nextInt(10_000), ChronoUnit.MINUTES),
+                    random.nextBoolean() ? ProjectType.PAID : ProjectType.FREE));
+            standings.add(new UserLeaderboardDto("6uGEoUSyILUlVrKhogKdCvnDW" + i, "Load User " + i,
+                    "https://lh3.googleusercontent.com/a/ACg8ocJ" + i + "=s96-c", 5000L - 37 * i, i + 1L));
+        }
+        projectPage = new PagedModel<>(new PageImpl<>(projects, PageRequest.of(0, 20), 4_321));
+        leaderboardPage = new PagedModel<>(new PageImpl<>(standings, PageRequest.of(0, 20), 100_000));
+        // once per format rather than once per benchmark
+        if (bodyLength == 2048 && params.getBenchmark().endsWith(".contentPage")) {
+            printSize("contents", page);
+            printSize("projects", projectPage);
+            printSize("leaderboard", leaderboardPage);
+        }
+
+        fullResponse = new ContentFullResponse(UUID.randomUUID(), "topic-3", "How we cut feed latency in half",
+                text(random, bodyLength), UUID.randomUUID(), "6uGEoUSyILUlVrKhogKdCvnDWaN2", "author",
+                "https://example.com/avatars/2.png", "https://example.com/covers/2.png", text(random, 240), 321, now);
+    }
+
+    @Benchmark
+    public byte[] contentPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] contentFull() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fullResponse);
+    }
+
+    @Benchmark
+    public byte[] projectPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(projectPage);
+    }
+
+    @Benchmark
+    public byte[] leaderboardPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(leaderboardPage);
+    }
+
+    /**
+     * A feed page as it leaves the server with compression on.
+     */
+    @Benchmark
+    public byte[] contentPageGzipped() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(page));
+    }
+
+    private void printSize(String name, Object payload) throws IOException {
+        byte[] raw = objectMapper.writeValueAsBytes(payload);
+        System.out.printf("%n%-12s %-6s %6d bytes, %6d gzipped%n", name, format, raw.length, gzip(raw).length);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static String text(Random random, int length) {
+        StringBuilder sb = new StringBuilder(length + 128);
+        while (sb.length() < length) {
+            sb.append(PARAGRAPHS[random.nextInt(PARAGRAPHS.length)]);
+        }
+        return sb.substring(0, length);
+    }
+}
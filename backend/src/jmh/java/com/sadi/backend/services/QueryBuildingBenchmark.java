@@ -0,0 +1,118 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.dtos.requests.ContentFilter;
+import com.sadi.backend.dtos.requests.ProjectFilter;
+import com.sadi.backend.dtos.responses.ContentShortResponse;
+import com.sadi.backend.dtos.responses.ProjectShortResponse;
+import com.sadi.backend.entities.Content;
+import com.sadi.backend.entities.ContentTopic;
+import com.sadi.backend.entities.ContentVote;
+import com.sadi.backend.entities.Project;
+import com.sadi.backend.entities.ProjectResponse;
+import com.sadi.backend.entities.User;
+import com.sadi.backend.enums.ProjectType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning listing filters into a Hibernate query: the specification chains the services build
+ * and the criteria query created from them. Runs against a session factory that never opens a
+ * connection, so only the in-JVM work is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBuildingBenchmark {
+    private SessionFactory sessionFactory;
+    private Session session;
+    private ContentService contentService;
+    private ProjectService projectService;
+    private Instant startTime;
+    private Instant endTime;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.boot.allow_jdbc_metadata_access", false)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClasses(Content.class, ContentTopic.class, ContentVote.class, User.class,
+                        Project.class, ProjectResponse.class)
+                .buildMetadata()
+                .buildSessionFactory();
+        session = sessionFactory.openSession();
+
+        contentService = new ContentService(null, null, null, null, null, null, null, new SimpleMeterRegistry());
+        projectService = new ProjectService(null, null, null, new SimpleMeterRegistry());
+        injectEntityManager(ContentService.class, contentService);
+        injectEntityManager(ProjectService.class, projectService);
+
+        SecurityContextHolder.setContext(new SecurityContextImpl(new TestingAuthenticationToken("user-1", null)));
+        endTime = Instant.now();
+        startTime = endTime.minus(30, ChronoUnit.DAYS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+        session.close();
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Specification<Content> contentSpecification() {
+        return contentService.getSpecification(
+                new ContentFilter(startTime, endTime, null, "spring", "alice", "topic-3"),
+                Content.SortCategory.VOTES, Sort.Direction.DESC);
+    }
+
+    @Benchmark
+    public TypedQuery<ContentShortResponse> contentCriteriaQuery() {
+        return contentService.createShortResponseQuery(contentService.getSpecification(
+                new ContentFilter(startTime, endTime, null, "spring", "alice", "topic-3"),
+                Content.SortCategory.VOTES, Sort.Direction.DESC));
+    }
+
+    @Benchmark
+    public Specification<Project> projectSpecification() {
+        return projectService.getSpecification(
+                new ProjectFilter(startTime, endTime, null, "android", null, ProjectType.PAID),
+                Project.SortCategory.PRIORITY, Sort.Direction.DESC);
+    }
+
+    @Benchmark
+    public TypedQuery<ProjectShortResponse> projectCriteriaQuery() {
+        return projectService.createShortResponseQuery(projectService.getSpecification(
+                new ProjectFilter(startTime, endTime, null, "android", null, ProjectType.PAID),
+                Project.SortCategory.PRIORITY, Sort.Direction.DESC));
+    }
+
+    private void injectEntityManager(Class<?> type, Object service) throws ReflectiveOperationException {
+        Field field = type.getDeclaredField("entityManager");
+        field.setAccessible(true);
+        field.set(service, session);
+    }
+}
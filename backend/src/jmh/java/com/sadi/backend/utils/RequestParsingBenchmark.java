@@ -0,0 +1,60 @@
+package com.sadi.backend.utils;
+
+import com.sadi.backend.dtos.requests.ContentFilter;
+import com.sadi.backend.services.UserService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Small per-request parsing steps: deriving a display name from the email claim, decoding feed
+ * cursors, turning date parameters into an instant window and normalizing filters for the count cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestParsingBenchmark {
+    private UserService userService;
+    private String email;
+    private String cursor;
+    private String startDate;
+    private String zoneId;
+
+    @Setup
+    public void setUp() {
+        userService = new UserService(null, null, null, null, new SimpleMeterRegistry());
+        email = "2005077@ugrad.cse.buet.ac.bd";
+        cursor = new FeedCursor("VOTES", Sort.Direction.DESC, "1234", UUID.randomUUID()).encode();
+        startDate = "2025-05-01";
+        zoneId = "Asia/Dhaka";
+    }
+
+    @Benchmark
+    public String extractFullName() {
+        return userService.extractFullName(email);
+    }
+
+    @Benchmark
+    public FeedCursor decodeCursor() {
+        return FeedCursor.decode(cursor);
+    }
+
+    @Benchmark
+    public Instant dateWindowStart() {
+        return LocalDate.parse(startDate).atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
+    }
+
+    @Benchmark
+    public Object filterCacheKey() {
+        return new ContentFilter(null, null, null, "Spring Boot", null, "topic-3").filterKey().cacheKey();
+    }
+}
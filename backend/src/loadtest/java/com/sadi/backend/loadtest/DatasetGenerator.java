@@ -0,0 +1,155 @@
+package com.sadi.backend.loadtest;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Seeds a migrated database with a synthetic dataset sized by the options. All rows are generated
+ * inside Postgres with {@code generate_series}, and the skew comes from powers of {@code random()}:
+ * a few topics hold most posts, a few posts collect most votes and scores follow a long tail. The
+ * same {@code --seed} produces the same dataset.
+ * <p>
+ * Ids are derived from row numbers ({@code lt-user-N}, {@code md5('lt-content-N')}), so the load
+ * runner can address users without reading them back.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.main=com.sadi.backend.loadtest.DatasetGenerator \
+ *     -Dloadtest.args="--url=jdbc:postgresql://localhost:5432/district12 --user=postgres --password=postgres \
+ *     --users=100000 --contents=1000000 --votes=20000000 --reset"
+ * </pre>
+ */
+public final class DatasetGenerator {
+    private static final int BATCH = 500_000;
+
+    private final Connection connection;
+    private final Options options;
+
+    private DatasetGenerator(Connection connection, Options options) {
+        this.connection = connection;
+        this.options = options;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        Options options = new Options(args);
+        try (Connection connection = DriverManager.getConnection(
+                options.get("url", "jdbc:postgresql://localhost:5432/district12"),
+                options.get("user", "postgres"),
+                options.get("password", "postgres"))) {
+            connection.setAutoCommit(true);
+            new DatasetGenerator(connection, options).generate();
+        }
+    }
+
+    private void generate() throws SQLException {
+        long users = options.getLong("users", 100_000);
+        long topics = options.getLong("topics", 30);
+        long contents = options.getLong("contents", 1_000_000);
+        long votes = options.getLong("votes", 20_000_000);
+        long projects = options.getLong("projects", 50_000);
+        long responses = options.getLong("responses-per-project", 8);
+
+        if (options.has("reset")) {
+            timed("reset", () -> execute(
+                    "TRUNCATE content_votes, contents, project_responses, projects, content_topics, users CASCADE"));
+        }
+        execute("SELECT setseed(" + Double.parseDouble(options.get("seed", "0.42")) + ")");
+
+        timed("users", () -> update("""
+                INSERT INTO users (id, email, full_name, role, profile_picture, credit, score, created_at)
+                SELECT 'lt-user-' || i, 'lt-user-' || i || '@loadtest.local', 'Load User ' || i,
+                       CASE WHEN i <= 10 THEN 'ADMIN' ELSE 'USER' END,
+                       'https://example.com/avatars/' || (i % 500) || '.png', 0,
+                       floor(10000 * power(random(), 6))::bigint, now() - random() * interval '365 days'
+                FROM generate_series(1, ?) i
+                """, users));
+        timed("topics", () -> update("""
+                INSERT INTO content_topics (id, description, created_at)
+                SELECT 'topic-' || i, 'Topic ' || i, now() FROM generate_series(1, ?) i
+                """, topics));
+
+        for (long next = 1; next <= contents; next += BATCH) {
+            long from = next;
+            long to = Math.min(contents, from + BATCH - 1);
+            timed("contents " + from + ".." + to, () -> update("""
+                    INSERT INTO contents (id, user_id, title, body, created_at, topic_id, upvote_count, cover_photo, summary)
+                    SELECT md5('lt-content-' || i)::uuid,
+                           'lt-user-' || (1 + floor(? * power(random(), 3)))::int,
+                           'Load test post ' || i || ' about ' || (ARRAY['spring', 'postgres', 'android', 'ক্যারিয়ার', 'গণিত'])[1 + (i % 5)::int],
+                           repeat('Measuring before optimizing keeps the feed fast. প্রতিটি অনুরোধ মাপা হয়। ',
+                                  1 + floor(60 * power(random(), 2))::int),
+                           now() - random() * interval '365 days',
+                           'topic-' || (1 + floor(? * power(random(), 2)))::int,
+                           0,
+                           'https://example.com/covers/' || (i % 1000) || '.png',
+                           'Summary of load test post ' || i
+                    FROM generate_series(?, ?) i
+                    """, users, topics, from, to));
+        }
+
+        for (long next = 0; next < votes; next += BATCH) {
+            long done = next;
+            long batch = Math.min(BATCH, votes - done);
+            timed("votes " + done + "+" + batch, () -> update("""
+                    INSERT INTO content_votes (id, user_id, content_id)
+                    SELECT gen_random_uuid(), 'lt-user-' || (1 + floor(random() * ?))::int,
+                           md5('lt-content-' || (1 + floor(? * power(random(), 4)))::int)::uuid
+                    FROM generate_series(1, ?)
+                    ON CONFLICT (content_id, user_id) DO NOTHING
+                    """, users, contents, batch));
+        }
+        timed("upvote counts", () -> execute("""
+                UPDATE contents c SET upvote_count = v.votes
+                FROM (SELECT content_id, count(*) AS votes FROM content_votes GROUP BY content_id) v
+                WHERE v.content_id = c.id
+                """));
+
+        timed("projects", () -> update("""
+                INSERT INTO projects (id, user_id, title, body, type, priority, created_at)
+                SELECT md5('lt-project-' || i)::uuid,
+                       'lt-user-' || (1 + floor(? * power(random(), 2)))::int,
+                       'Load test project ' || i,
+                       repeat('Looking for help with a small project. ', 1 + floor(20 * random())::int),
+                       CASE WHEN random() < 0.3 THEN 'PAID' ELSE 'FREE' END,
+                       floor(10 * random())::int,
+                       now() - random() * interval '180 days'
+                FROM generate_series(1, ?) i
+                """, users, projects));
+        timed("project responses", () -> update("""
+                INSERT INTO project_responses (id, user_id, bkash, project_id, body, is_varified, created_at)
+                SELECT gen_random_uuid(), 'lt-user-' || (1 + floor(random() * ?))::int, NULL,
+                       md5('lt-project-' || p)::uuid, 'I can help with this.', random() < 0.3,
+                       now() - random() * interval '90 days'
+                FROM generate_series(1, ?) p, generate_series(1, ?) r
+                """, users, projects, responses));
+
+        timed("analyze", () -> execute("VACUUM ANALYZE"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    private void update(String sql, long... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                statement.setLong(i + 1, params[i]);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private static void timed(String step, SqlStep action) throws SQLException {
+        long start = System.nanoTime();
+        action.run();
+        System.out.printf("%-32s %8.1f s%n", step, (System.nanoTime() - start) / 1e9);
+    }
+
+    @FunctionalInterface
+    private interface SqlStep {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,38 @@
+package com.sadi.backend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies (in microseconds) and failures recorded for one endpoint.
+ */
+final class EndpointStats {
+    private final String name;
+    private final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    void record(long latencyNanos, boolean ok) {
+        latencies.recordValue(Math.max(1, latencyNanos / 1_000));
+        if (!ok) {
+            errors.increment();
+        }
+    }
+
+    String name() {
+        return name;
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Histogram snapshot() {
+        return latencies.copy();
+    }
+}
@@ -0,0 +1,295 @@
+package com.sadi.backend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Drives a mix of feed browsing, voting storms, project response submission and leaderboard polling
+ * against a backend started with the {@code local-auth} profile, then prints latency percentiles and
+ * throughput per endpoint.
+ * <p>
+ * Without {@code --rate} it runs a closed loop of {@code --concurrency} virtual threads. With
+ * {@code --rate} it issues requests on a fixed schedule and measures each one from its scheduled start,
+ * so a stalled server shows up in the percentiles instead of silently lowering the request rate.
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.args="--base-url=http://localhost:8080 --duration=60 \
+ *     --warmup=15 --rate=400 --users=100000 --mix=feed:55,vote:20,respond:5,leaderboard:20"
+ * </pre>
+ * {@code --targets} runs the same workload against several instances one after another and prints them
+ * side by side, e.g. one started with {@code VIRTUAL_THREADS_ENABLED=false} and one with the default
+ * virtual threads. Every instance also binds a management port, 8081 by default, so the second one needs
+ * both ports moved, e.g. {@code SERVER_PORT=8082 MANAGEMENT_PORT=8083}:
+ * <pre>
+ * mvn -Ploadtest test-compile exec:java -Dloadtest.args="--targets=platform=http://localhost:8080,\
+ *     virtual=http://localhost:8082 --duration=60 --warmup=15 --rate=800"
+ * </pre>
+ */
+public final class LoadTestRunner {
+    private static final Pattern NEXT_CURSOR = Pattern.compile("\"nextCursor\":\"([^\"]+)\"");
+
+    private final HttpClient client;
+    private final URI baseUrl;
+    private final TokenMinter minter;
+    private final long users;
+    private final String countPolicy;
+    private final Map<String, Integer> mix;
+    private final int totalWeight;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private List<String> contentIds = List.of();
+    private List<String> projectIds = List.of();
+    private volatile String lastCursor;
+    private volatile long measureFromNanos = Long.MAX_VALUE;
+
+    private LoadTestRunner(Options options, URI baseUrl) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.baseUrl = baseUrl;
+        this.minter = new TokenMinter(
+                options.get("secret", "local-load-test-secret-change-me-0123456789"), Duration.ofHours(2));
+        this.users = options.getLong("users", 100_000);
+        this.countPolicy = options.get("count-policy", "EXACT");
+        this.mix = parseMix(options.get("mix", "feed:55,vote:20,respond:5,leaderboard:20"));
+        this.totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        Map<String, URI> targets = new LinkedHashMap<>();
+        for (String target : options.get("targets", "").split(",")) {
+            if (!target.isBlank()) {
+                int eq = target.indexOf('=');
+                targets.put(target.substring(0, eq).trim(), URI.create(target.substring(eq + 1).trim()));
+            }
+        }
+        if (targets.isEmpty()) {
+            targets.put("default", URI.create(options.get("base-url", "http://localhost:8080")));
+        }
+
+        int durationSeconds = options.getInt("duration", 60);
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Map.Entry<String, URI> target : targets.entrySet()) {
+            System.out.printf("%n== %s (%s)%n", target.getKey(), target.getValue());
+            LoadTestRunner runner = new LoadTestRunner(options, target.getValue());
+            runner.discover();
+            results.put(target.getKey(), runner.run(options.getInt("warmup", 10), durationSeconds,
+                    options.getInt("concurrency", 64), options.getInt("rate", 0)));
+        }
+        if (results.size() > 1) {
+            System.out.printf("%n%-34s %9s %7s %9s %9s %9s %9s %9s%n",
+                    "target", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+            results.forEach((name, result) -> print(name, result.latencies(), result.errors(), durationSeconds));
+        }
+    }
+
+    private void discover() throws IOException, InterruptedException {
+        ObjectMapper mapper = new ObjectMapper();
+        contentIds = ids(mapper, "/v1/contents?sortType=VOTES&size=200&countPolicy=NONE");
+        projectIds = ids(mapper, "/v1/projects?size=100&countPolicy=NONE");
+        if (contentIds.isEmpty() || projectIds.isEmpty()) {
+            throw new IllegalStateException("No contents or projects found, run DatasetGenerator first");
+        }
+        System.out.printf("Using %d hot contents and %d projects%n", contentIds.size(), projectIds.size());
+    }
+
+    private List<String> ids(ObjectMapper mapper, String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request(path, "lt-user-1", "ADMIN").GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        List<String> ids = new ArrayList<>();
+        for (JsonNode row : mapper.readTree(response.body()).path("content")) {
+            ids.add(row.path("id").asText());
+        }
+        return ids;
+    }
+
+    private Result run(int warmupSeconds, int durationSeconds, int concurrency, int rate) {
+        long start = System.nanoTime();
+        measureFromNanos = start + warmupSeconds * 1_000_000_000L;
+        long end = measureFromNanos + durationSeconds * 1_000_000_000L;
+        System.out.printf("Warming up for %d s, then measuring for %d s (%s)%n", warmupSeconds, durationSeconds,
+                rate > 0 ? rate + " req/s" : concurrency + " workers");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (rate > 0) {
+                long interval = 1_000_000_000L / rate;
+                for (long next = start; next - end < 0; next += interval) {
+                    long wait = next - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    long scheduled = next;
+                    executor.submit(() -> runOnce(scheduled));
+                }
+            } else {
+                for (int i = 0; i < concurrency; i++) {
+                    executor.submit(() -> {
+                        while (System.nanoTime() - end < 0) {
+                            runOnce(System.nanoTime());
+                        }
+                    });
+                }
+            }
+        }
+        return report(durationSeconds);
+    }
+
+    private void runOnce(long scheduledNanos) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                switch (entry.getKey()) {
+                    case "feed" -> browseFeed(random, scheduledNanos);
+                    case "vote" -> vote(random, scheduledNanos);
+                    case "respond" -> respond(random, scheduledNanos);
+                    case "leaderboard" -> pollLeaderboard(random, scheduledNanos);
+                    default -> throw new IllegalArgumentException("Unknown scenario " + entry.getKey());
+                }
+                return;
+            }
+        }
+    }
+
+    private void browseFeed(ThreadLocalRandom random, long scheduledNanos) {
+        int roll = random.nextInt(100);
+        String user = randomUser(random);
+        if (roll < 55) {
+            int page = (int) (20 * Math.pow(random.nextDouble(), 3));
+            send("GET /v1/contents", request("/v1/contents?sortType=VOTES&size=10&page=" + page
+                    + "&countPolicy=" + countPolicy, user, "USER").GET().build(), scheduledNanos);
+        } else if (roll < 80) {
+            send("GET /v1/contents/{id}", request("/v1/contents/" + skewedPick(contentIds, random), user, "USER")
+                    .GET().build(), scheduledNanos);
+        } else {
+            String cursor = lastCursor;
+            String path = "/v1/contents/feed?sortType=VOTES&size=10"
+                    + (cursor != null && random.nextBoolean() ? "&cursor=" + cursor : "");
+            String body = send("GET /v1/contents/feed", request(path, user, "USER").GET().build(), scheduledNanos);
+            if (body != null) {
+                Matcher matcher = NEXT_CURSOR.matcher(body);
+                if (matcher.find()) {
+                    lastCursor = matcher.group(1);
+                }
+            }
+        }
+    }
+
+    private void vote(ThreadLocalRandom random, long scheduledNanos) {
+        // most of the storm lands on the handful of hottest posts
+        send("PUT /v1/contents/{id}/vote", request("/v1/contents/" + skewedPick(contentIds, random) + "/vote",
+                randomUser(random), "USER").PUT(HttpRequest.BodyPublishers.noBody()).build(), scheduledNanos);
+    }
+
+    private void respond(ThreadLocalRandom random, long scheduledNanos) {
+        String body = "{\"body\":\"I can help with this, load test response %d\",\"bkashNumber\":\"01700000000\"}"
+                .formatted(random.nextInt(1_000_000));
+        send("POST /v1/projects/{id}/responses", request("/v1/projects/" + skewedPick(projectIds, random)
+                + "/responses", randomUser(random), "USER")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), scheduledNanos);
+    }
+
+    private void pollLeaderboard(ThreadLocalRandom random, long scheduledNanos) {
+        String user = randomUser(random);
+        if (random.nextInt(100) < 70) {
+            send("GET /v1/users/leaderboard", request("/v1/users/leaderboard?size=10&page=" + random.nextInt(5),
+                    user, "USER").GET().build(), scheduledNanos);
+        } else {
+            send("GET /v1/users", request("/v1/users?userId=" + randomUser(random), user, "USER").GET().build(),
+                    scheduledNanos);
+        }
+    }
+
+    private HttpRequest.Builder request(String path, String userId, String role) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + minter.mint(userId, role));
+    }
+
+    private String send(String endpoint, HttpRequest request, long scheduledNanos) {
+        boolean ok;
+        String body = null;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            ok = response.statusCode() < 400;
+            body = response.body();
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        long now = System.nanoTime();
+        if (scheduledNanos - measureFromNanos >= 0) {
+            stats.computeIfAbsent(endpoint, EndpointStats::new).record(now - scheduledNanos, ok);
+        }
+        return body;
+    }
+
+    private String randomUser(ThreadLocalRandom random) {
+        return "lt-user-" + (1 + random.nextLong(users));
+    }
+
+    private static String skewedPick(List<String> ids, ThreadLocalRandom random) {
+        return ids.get((int) (ids.size() * Math.pow(random.nextDouble(), 3)));
+    }
+
+    private Result report(int durationSeconds) {
+        System.out.printf("%n%-34s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (EndpointStats endpoint : new TreeMap<>(stats).values()) {
+            Histogram histogram = endpoint.snapshot();
+            print(endpoint.name(), histogram, endpoint.errors(), durationSeconds);
+            total.add(histogram);
+            totalErrors += endpoint.errors();
+        }
+        print("total", total, totalErrors, durationSeconds);
+        return new Result(total, totalErrors);
+    }
+
+    private static void print(String name, Histogram histogram, long errors, int durationSeconds) {
+        System.out.printf("%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n", name, histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / (double) durationSeconds,
+                histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0, histogram.getMaxValue() / 1000.0);
+    }
+
+    private record Result(Histogram latencies, long errors) {
+    }
+
+    private static Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.split(":");
+            mix.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,41 @@
+package com.sadi.backend.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@code --name=value} command line options with defaults.
+ */
+final class Options {
+    private final Map<String, String> values = new HashMap<>();
+
+    Options(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int getInt(String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+}
@@ -0,0 +1,42 @@
+package com.sadi.backend.loadtest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Mints HS256 tokens accepted by the backend when it runs with the {@code local-auth} profile. The
+ * claims mirror what the Firebase decoder puts on a verified token.
+ */
+final class TokenMinter {
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final String HEADER = ENCODER.encodeToString("{\"alg\":\"HS256\",\"typ\":\"JWT\"}"
+            .getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    TokenMinter(String secret, Duration ttl) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.ttl = ttl;
+    }
+
+    String mint(String userId, String role) {
+        long now = Instant.now().getEpochSecond();
+        String payload = """
+                {"sub":"%s","email":"%s@loadtest.local","email_verified":true,"scp":"%s","iss":"local-auth","iat":%d,"exp":%d}"""
+                .formatted(userId, userId, role, now, now + ttl.toSeconds());
+        String signingInput = HEADER + "." + ENCODER.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return signingInput + "." + ENCODER.encodeToString(mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.sadi.backend.configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}) representations of every
+ * response, for clients that ask for them in {@code Accept}. JSON stays the default.
+ * <p>
+ * Both mappers start from Boot's configured builder, so the field names and null handling match JSON, but
+ * write timestamps as epoch milliseconds. UUIDs go out as 16 raw bytes since both formats carry binary.
+ * Smile also back-references repeated short strings, which covers the author names and picture URLs that
+ * repeat down a feed or leaderboard page.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(cborMapper(builder));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(smileMapper(builder));
+    }
+
+    public static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder builder) {
+        return binary(builder.factory(new CBORFactory()));
+    }
+
+    public static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder builder) {
+        return binary(builder.factory(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build()));
+    }
+
+    private static ObjectMapper binary(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.sadi.backend.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admits at most {@code permits} borrowed connections at a time and queues the rest in arrival order.
+ * With virtual threads every request can reach the pool at once; the bulkhead keeps that wait fair,
+ * measurable and bounded instead of leaving thousands of threads racing for Hikari's hand-off queue.
+ * A permit is held until the connection is closed.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    public BulkheadDataSource(DataSource target, String pool, int permits, Duration timeout,
+                              MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeout.toNanos();
+        this.waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent queued for a database connection permit")
+                .publishPercentileHistogram()
+                .tag("pool", pool)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("db.bulkhead.rejected")
+                .description("Connection requests that timed out waiting for a permit")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("db.bulkhead.queued", this.permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database connection permit")
+                .tag("pool", pool)
+                .register(meterRegistry);
+        Gauge.builder("db.bulkhead.in-use", this.permits, semaphore -> permits - semaphore.availablePermits())
+                .description("Database connection permits currently held")
+                .tag("pool", pool)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        return borrow(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        return borrow(() -> super.getConnection(username, password));
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+        } finally {
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            rejected.increment();
+            throw new SQLTransientConnectionException("Timed out waiting for a database connection permit");
+        }
+    }
+
+    private Connection borrow(ConnectionSupplier supplier) throws SQLException {
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        if (!released.compareAndSet(false, true)) {
+                            return null;
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        } finally {
+                            permits.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
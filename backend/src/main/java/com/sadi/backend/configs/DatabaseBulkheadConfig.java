@@ -0,0 +1,75 @@
+package com.sadi.backend.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link BulkheadDataSource} in front of each connection pool when requests run on virtual threads.
+ * Platform threads are already bounded by the Tomcat pool, so nothing is wrapped in that mode.
+ * <p>
+ * Data source wrappers are applied innermost first: the bulkhead ({@link #ORDER}), then replica routing
+ * ({@link ReplicaRoutingConfig#ORDER}), then SQL budgets ({@link SqlBudgetConfig#ORDER}). Replica pools are
+ * not beans, so the routing config limits them itself through {@link #limit}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseBulkheadConfig {
+    static final int ORDER = Ordered.HIGHEST_PRECEDENCE;
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    // This and the replica routing and SQL budget post processors are static and return their own type,
+    // so the container can read their order before instantiating them and wraps the data source in it
+    @Bean
+    public static BulkheadPostProcessor databaseBulkheadPostProcessor(Environment environment,
+                                                                      ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BulkheadPostProcessor(environment, meterRegistry);
+    }
+
+    /**
+     * Limits the pool to as many borrowers as it has connections, so the queue forms here and not inside
+     * Hikari.
+     */
+    static DataSource limit(HikariDataSource pool, Environment environment, MeterRegistry meterRegistry) {
+        Duration timeout = environment.getProperty("db.bulkhead.timeout", Duration.class, Duration.ofSeconds(2));
+        int permits = maximumPoolSize(pool);
+        log.info("Limiting {} to {} concurrent connections, waiting at most {}", pool.getPoolName(), permits, timeout);
+        return new BulkheadDataSource(pool, pool.getPoolName(), permits, timeout, meterRegistry);
+    }
+
+    /**
+     * The size the pool will have once started; Hikari reports -1 before that when none was configured.
+     */
+    static int maximumPoolSize(HikariDataSource pool) {
+        return pool.getMaximumPoolSize() > 0 ? pool.getMaximumPoolSize() : DEFAULT_POOL_SIZE;
+    }
+
+    record BulkheadPostProcessor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry)
+            implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof HikariDataSource pool)) {
+                return bean;
+            }
+            return limit(pool, environment, meterRegistry.getObject());
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+}
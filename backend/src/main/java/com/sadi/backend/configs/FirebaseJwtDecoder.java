@@ -5,6 +5,11 @@ import com.google.firebase.auth.AuthErrorCode;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
 import com.google.firebase.auth.FirebaseToken;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -12,41 +17,74 @@ import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.security.oauth2.jwt.JwtValidationException;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @Component
+@Profile("!local-auth")
 public class FirebaseJwtDecoder implements JwtDecoder {
     private final FirebaseAuth firebaseAuth;
+    private final FirebaseTokenCache tokenCache;
+    private final boolean checkRevoked;
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> decodeTimer;
 
-    public FirebaseJwtDecoder(FirebaseApp firebaseApp) {
+    public FirebaseJwtDecoder(FirebaseApp firebaseApp, FirebaseTokenCache tokenCache,
+                              @Value("${firebase.check-revoked:false}") boolean checkRevoked,
+                              MeterRegistry meterRegistry) {
         this.firebaseAuth = FirebaseAuth.getInstance(firebaseApp);
+        this.tokenCache = tokenCache;
+        this.checkRevoked = checkRevoked;
+        this.meterRegistry = meterRegistry;
+        this.decodeTimer = Timer.builder("auth.token.decode")
+                .description("Bearer token decoding, tagged cached, verified or rejected")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
     }
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Jwt cached = tokenCache.get(token);
+        if (cached != null) {
+            sample.stop(decodeTimer.withTag("result", "cached"));
+            return cached;
+        }
         try {
             FirebaseToken firebaseToken = validateToken(token);
-            return createJwt(firebaseToken, token);
+            Jwt jwt = createJwt(firebaseToken, token);
+            tokenCache.put(token, jwt);
+            sample.stop(decodeTimer.withTag("result", "verified"));
+            return jwt;
         } catch (FirebaseAuthException e) {
+            sample.stop(decodeTimer.withTag("result", "rejected"));
             AuthErrorCode authErrorCode = e.getAuthErrorCode();
             throw new JwtValidationException(e.getMessage(),
                     List.of(new OAuth2Error(authErrorCode.name(), e.getMessage(), null)));
         }
     }
 
-    private Jwt createJwt(FirebaseToken firebaseToken, String token) {
+    Jwt createJwt(FirebaseToken firebaseToken, String token) {
+        Map<String, Object> claims = firebaseToken.getClaims();
         return Jwt.withTokenValue(token)
                 .header("alg", "RS256")
                 .header("type", "JWT")
                 .subject(firebaseToken.getUid())
+                .issuedAt(toInstant(claims.get("iat")))
+                .expiresAt(toInstant(claims.get("exp")))
                 .claim("email", firebaseToken.getEmail())
                 .claim("email_verified", firebaseToken.isEmailVerified())
                 .claim("iss", firebaseToken.getIssuer())
-                .claim("scp", firebaseToken.getClaims().get("scp"))
+                .claim("scp", claims.get("scp"))
                 .build();
     }
 
+    private Instant toInstant(Object epochSeconds) {
+        return epochSeconds instanceof Number n ? Instant.ofEpochSecond(n.longValue()) : null;
+    }
+
     private FirebaseToken validateToken(String token) throws FirebaseAuthException {
-        return firebaseAuth.verifyIdToken(token);
+        return firebaseAuth.verifyIdToken(token, checkRevoked);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,98 @@
+package com.sadi.backend.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.NonNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keeps already verified Firebase ID tokens so that repeated requests with the same token
+ * skip the signature verification. Entries are keyed by a SHA-256 digest of the token and
+ * never outlive the token's own expiry or the configured max TTL, whichever comes first.
+ */
+@Component
+public class FirebaseTokenCache {
+    private final Cache<String, Jwt> cache;
+    private final Duration maxTtl;
+
+    public FirebaseTokenCache(
+            @Value("${firebase.token-cache.maximum-size:10000}") long maximumSize,
+            @Value("${firebase.token-cache.max-ttl:5m}") Duration maxTtl,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "firebaseTokens");
+    }
+
+    public Jwt get(String token) {
+        String key = digest(token);
+        Jwt jwt = cache.getIfPresent(key);
+        if (jwt == null) {
+            return null;
+        }
+        // Caffeine expires lazily, so never hand out a token whose exp has already passed
+        if (isExpired(jwt)) {
+            cache.invalidate(key);
+            return null;
+        }
+        return jwt;
+    }
+
+    public void put(String token, Jwt jwt) {
+        if (jwt.getExpiresAt() == null || isExpired(jwt)) {
+            return;
+        }
+        cache.put(digest(token), jwt);
+    }
+
+    private boolean isExpired(Jwt jwt) {
+        return !Instant.now().isBefore(Objects.requireNonNull(jwt.getExpiresAt()));
+    }
+
+    private String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            byte[] hash = sha256.digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private class TokenExpiry implements Expiry<String, Jwt> {
+        @Override
+        public long expireAfterCreate(@NonNull String key, @NonNull Jwt jwt, long currentTime) {
+            Duration untilExpiry = Duration.between(Instant.now(), Objects.requireNonNull(jwt.getExpiresAt()));
+            Duration ttl = untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+            return Math.max(ttl.toNanos(), 0);
+        }
+
+        @Override
+        public long expireAfterUpdate(@NonNull String key, @NonNull Jwt jwt, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, jwt, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(@NonNull String key, @NonNull Jwt jwt, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.sadi.backend.configs;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Replaces Firebase token verification with HS256 tokens signed by a shared secret, so load tests and
+ * local runs can mint their own tokens. Never active together with the prod profile.
+ */
+@Slf4j
+@Configuration
+@Profile("local-auth & !prod")
+public class LocalAuthConfig {
+
+    @Bean
+    public JwtDecoder localJwtDecoder(@Value("${local-auth.secret}") String secret) {
+        byte[] key = secret.getBytes(StandardCharsets.UTF_8);
+        if (key.length < 32) {
+            throw new IllegalStateException("local-auth.secret must be at least 32 bytes");
+        }
+        log.warn("Local auth is enabled: tokens are verified against a shared secret instead of Firebase");
+        return NimbusJwtDecoder.withSecretKey(new SecretKeySpec(key, "HmacSHA256"))
+                .macAlgorithm(MacAlgorithm.HS256)
+                .build();
+    }
+}
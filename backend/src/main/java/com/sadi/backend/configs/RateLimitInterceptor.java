@@ -0,0 +1,50 @@
+package com.sadi.backend.configs;
+
+import com.sadi.backend.exceptions.RateLimitExceededException;
+import com.sadi.backend.services.RateLimiter;
+import com.sadi.backend.utils.SecurityUtils;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Applies {@link RateLimited} policies, keyed by the authenticated user, before the handler runs.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+    private final RateLimiter rateLimiter;
+
+    public RateLimitInterceptor(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        RateLimited limit = method.getMethodAnnotation(RateLimited.class);
+        if (limit == null) {
+            return true;
+        }
+        Optional<Duration> retryAfter = rateLimiter.tryAcquire(limit.value(), SecurityUtils.getName());
+        if (retryAfter.isPresent()) {
+            throw new RateLimitExceededException(limit.value(), retryAfter.get());
+        }
+        return true;
+    }
+}
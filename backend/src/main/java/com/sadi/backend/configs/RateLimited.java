@@ -0,0 +1,17 @@
+package com.sadi.backend.configs;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limits how often each user may call the annotated handler. The value names a policy configured with
+ * {@code rate-limit.<policy>.capacity} and {@code rate-limit.<policy>.refill-period}; handlers sharing a
+ * policy share a bucket.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    String value();
+}
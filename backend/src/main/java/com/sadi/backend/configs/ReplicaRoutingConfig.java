@@ -0,0 +1,138 @@
+package com.sadi.backend.configs;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the read-only transactions of the read-heavy services to the replicas listed in
+ * {@code datasource.replicas.urls}, see {@link ReplicaRoutingDataSource}. Nothing is wrapped when the
+ * list is empty. Two local Postgres instances are enough to try it out; the second one doesn't even
+ * have to replicate, since a server that isn't in recovery reports no lag:
+ * <pre>
+ * DB_URL=localhost:5432/district12 DB_REPLICA_URLS=jdbc:postgresql://localhost:5433/district12 mvn spring-boot:run
+ * </pre>
+ * Applied after the bulkhead, which limits the primary pool on its own, so every pool gets its own
+ * permits and they are only taken once the lazy proxy opens a physical connection.
+ */
+@Slf4j
+@Configuration
+public class ReplicaRoutingConfig {
+    static final int ORDER = DatabaseBulkheadConfig.ORDER + 1;
+
+    @Bean
+    public static RoutingPostProcessor replicaRoutingPostProcessor(Environment environment,
+                                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        return new RoutingPostProcessor(environment, meterRegistry);
+    }
+
+    /**
+     * Owns the replica pools and the lag checker it creates and shuts them down with the context.
+     */
+    static final class RoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+        private final Environment environment;
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+        private final List<HikariDataSource> replicaPools = new ArrayList<>();
+        private ScheduledExecutorService lagChecker;
+
+        RoutingPostProcessor(Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+            this.environment = environment;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            // the primary pool, possibly already behind its bulkhead
+            if (!(bean instanceof DataSource dataSource)) {
+                return bean;
+            }
+            HikariDataSource primary = unwrapPool(dataSource);
+            if (primary == null) {
+                return bean;
+            }
+            List<String> urls = List.of(environment.getProperty("datasource.replicas.urls", String[].class,
+                    new String[0]));
+            if (urls.isEmpty()) {
+                return bean;
+            }
+            MeterRegistry registry = meterRegistry.getObject();
+            Map<String, DataSource> replicas = new LinkedHashMap<>();
+            for (int i = 0; i < urls.size(); i++) {
+                HikariDataSource replica = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(urls.get(i).trim())
+                        .username(environment.getProperty("datasource.replicas.username", primary.getUsername()))
+                        .password(environment.getProperty("datasource.replicas.password", primary.getPassword()))
+                        .build();
+                replica.setPoolName("replica-" + (i + 1));
+                replica.setMaximumPoolSize(environment.getProperty("datasource.replicas.pool-size", Integer.class,
+                        DatabaseBulkheadConfig.maximumPoolSize(primary)));
+                replica.setReadOnly(true);
+                replica.setMetricRegistry(registry);
+                replicaPools.add(replica);
+                replicas.put(replica.getPoolName(), Threading.VIRTUAL.isActive(environment)
+                        ? DatabaseBulkheadConfig.limit(replica, environment, registry)
+                        : replica);
+            }
+
+            List<String> routed = List.of(environment.getProperty("datasource.replicas.routed", String[].class,
+                    new String[0]));
+            ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(dataSource, replicas, routed,
+                    environment.getProperty("datasource.replicas.max-lag", Duration.class, Duration.ofSeconds(5)),
+                    environment.getProperty("datasource.replicas.sticky-window", Duration.class, Duration.ofSeconds(10)),
+                    registry);
+
+            Duration interval = environment.getProperty("datasource.replicas.check-interval", Duration.class,
+                    Duration.ofSeconds(2));
+            lagChecker = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("replica-lag-check").daemon().factory());
+            lagChecker.scheduleWithFixedDelay(router::checkLag, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+
+            log.info("Routing read-only transactions of {} to {} replicas", routed, replicas.size());
+            return new LazyConnectionDataSourceProxy(router);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+
+        private static HikariDataSource unwrapPool(DataSource dataSource) {
+            try {
+                return dataSource.isWrapperFor(HikariDataSource.class) ? dataSource.unwrap(HikariDataSource.class)
+                        : null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (lagChecker != null) {
+                lagChecker.shutdownNow();
+            }
+            replicaPools.forEach(HikariDataSource::close);
+        }
+    }
+}
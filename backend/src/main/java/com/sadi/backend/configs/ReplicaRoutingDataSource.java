@@ -0,0 +1,178 @@
+package com.sadi.backend.configs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends read-only transactions of the routed services to a replica and everything else to the primary.
+ * A transaction is routed when it is read-only and its name, the {@code Class.method} Spring gives a
+ * declarative transaction, starts with one of the routed class names; repository calls made outside
+ * such a transaction stay on the primary.
+ * <p>
+ * Replicas whose replay lag is unknown or above {@code maxLag} are skipped until {@link #checkLag()}
+ * finds them caught up again, and with none left reads fall back to the primary. A user whose write
+ * committed within the sticky window reads from the primary, so they see their own changes.
+ * <p>
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the
+ * transaction's read-only flag and name are only known after the transaction manager asked for a
+ * connection.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    // zero on a primary or a caught-up standby, otherwise the age of the last replayed transaction
+    private static final String LAG_SQL = """
+            SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                        ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END
+            """;
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final List<String> routedClasses;
+    private final double maxLagSeconds;
+    private final Cache<String, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Meter.MeterProvider<Counter> routedReads;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Collection<String> routedClasses, Duration maxLag, Duration stickyWindow,
+                                    MeterRegistry meterRegistry) {
+        this.routedClasses = routedClasses.stream().map(name -> name + ".").toList();
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .build();
+        this.routedReads = Counter.builder("db.replica.reads")
+                .description("Read-only transactions of routed services, by target and why the primary was used")
+                .withRegistry(meterRegistry);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replay lag of the replica, NaN while it can't be measured")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriter();
+            return PRIMARY;
+        }
+        String name = TransactionSynchronizationManager.getCurrentTransactionName();
+        if (name == null || routedClasses.stream().noneMatch(name::startsWith)) {
+            return PRIMARY;
+        }
+        String userId = currentUser();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            routedReads.withTags("target", PRIMARY, "reason", "sticky").increment();
+            return PRIMARY;
+        }
+        List<Replica> healthy = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (healthy.isEmpty()) {
+            routedReads.withTags("target", PRIMARY, "reason", "lagging").increment();
+            return PRIMARY;
+        }
+        Replica replica = healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+        routedReads.withTags("target", "replica", "reason", "routed").increment();
+        return replica.name;
+    }
+
+    /**
+     * Measures every replica's replay lag and takes replicas in or out of rotation.
+     */
+    public void checkLag() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                Double lag = lagOf(replica.dataSource);
+                replica.lagSeconds = lag == null ? Double.NaN : lag;
+            } catch (RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                if (wasHealthy) {
+                    log.warn("Lag check on replica {} failed", replica.name, e);
+                }
+            }
+            replica.healthy = replica.lagSeconds <= maxLagSeconds;
+            if (wasHealthy != replica.healthy) {
+                log.info("Replica {} {} rotation, lag {} s", replica.name, replica.healthy ? "back in" : "out of",
+                        replica.lagSeconds);
+            }
+        }
+    }
+
+    Double lagOf(DataSource replica) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+        jdbcTemplate.setQueryTimeout(1);
+        return jdbcTemplate.queryForObject(LAG_SQL, Double.class);
+    }
+
+    private void rememberWriter() {
+        String userId = currentUser();
+        if (userId == null || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    recentWriters.put(userId, Boolean.TRUE);
+                }
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        // out of rotation until the first lag check succeeds
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.sadi.backend.configs;
+
+import com.sadi.backend.services.ScoreLedger;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Operator endpoint for recomputing user totals from the score ledger:
+ * {@code POST /actuator/scores} on the management port. It is not part of the public API, because a
+ * rebuild updates every user row and holds the aggregation lock while it runs.
+ */
+@Component
+@Endpoint(id = "scores")
+public class ScoreLedgerEndpoint {
+    private final ScoreLedger scoreLedger;
+
+    public ScoreLedgerEndpoint(ScoreLedger scoreLedger) {
+        this.scoreLedger = scoreLedger;
+    }
+
+    @WriteOperation
+    public Map<String, Integer> rebuild() {
+        return Map.of("corrected", scoreLedger.rebuild());
+    }
+}
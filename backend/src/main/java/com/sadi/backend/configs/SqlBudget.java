@@ -0,0 +1,67 @@
+package com.sadi.backend.configs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Statements and rows issued on behalf of the current HTTP request. {@link SqlBudgetFilter} opens a
+ * usage per request and {@link SqlBudgetDataSource} counts into it; connections borrowed outside a
+ * request, e.g. by scheduled jobs, are not counted.
+ */
+public final class SqlBudget {
+    /** Request attribute holding the {@link Usage} of a finished request. */
+    public static final String USAGE_ATTRIBUTE = SqlBudget.class.getName() + ".usage";
+
+    private static final int MAX_DISTINCT_STATEMENTS = 64;
+    private static final ThreadLocal<Usage> CURRENT = new ThreadLocal<>();
+
+    private SqlBudget() {
+    }
+
+    static Usage open() {
+        Usage usage = new Usage();
+        CURRENT.set(usage);
+        return usage;
+    }
+
+    static void close() {
+        CURRENT.remove();
+    }
+
+    static Usage current() {
+        return CURRENT.get();
+    }
+
+    public static final class Usage {
+        private int statements;
+        private long rows;
+        // SQL text by execution count, so an over-budget log can name the statement that repeats
+        private final Map<String, Integer> executions = new LinkedHashMap<>();
+
+        synchronized void statement(String sql) {
+            statements++;
+            if (sql != null && (executions.size() < MAX_DISTINCT_STATEMENTS || executions.containsKey(sql))) {
+                executions.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        synchronized void row() {
+            rows++;
+        }
+
+        public synchronized int getStatements() {
+            return statements;
+        }
+
+        public synchronized long getRows() {
+            return rows;
+        }
+
+        public synchronized Optional<Map.Entry<String, Integer>> mostRepeated() {
+            return executions.entrySet().stream()
+                    .max(Map.Entry.comparingByValue())
+                    .map(e -> Map.entry(e.getKey(), e.getValue()));
+        }
+    }
+}
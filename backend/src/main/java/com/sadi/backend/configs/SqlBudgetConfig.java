@@ -0,0 +1,57 @@
+package com.sadi.backend.configs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the SQL each request issues, see {@link SqlBudgetFilter}. On unless {@code sql.budget.enabled}
+ * is false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.budget.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlBudgetConfig {
+
+    // outermost, so statements are counted once whichever pool ends up running them
+    static final int ORDER = ReplicaRoutingConfig.ORDER + 1;
+
+    @Bean
+    public static SqlBudgetPostProcessor sqlBudgetDataSourcePostProcessor() {
+        return new SqlBudgetPostProcessor();
+    }
+
+    record SqlBudgetPostProcessor() implements BeanPostProcessor, Ordered {
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || bean instanceof SqlBudgetDataSource) {
+                return bean;
+            }
+            return new SqlBudgetDataSource(dataSource);
+        }
+
+        @Override
+        public int getOrder() {
+            return ORDER;
+        }
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlBudgetFilter> sqlBudgetFilter(
+            @Value("${sql.budget.max-statements:10}") int maxStatements,
+            @Value("${sql.budget.max-rows:1000}") long maxRows,
+            MeterRegistry meterRegistry
+    ) {
+        FilterRegistrationBean<SqlBudgetFilter> registration =
+                new FilterRegistrationBean<>(new SqlBudgetFilter(maxStatements, maxRows, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
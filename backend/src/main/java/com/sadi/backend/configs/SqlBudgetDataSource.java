@@ -0,0 +1,90 @@
+package com.sadi.backend.configs;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts executed statements and fetched rows into the current {@link SqlBudget} usage. Counting happens
+ * at the JDBC level so statements issued through {@code JdbcTemplate} are included along with Hibernate's.
+ * Connections borrowed while no usage is open are handed out unwrapped.
+ */
+public class SqlBudgetDataSource extends DelegatingDataSource {
+
+    public SqlBudgetDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection connection) {
+        SqlBudget.Usage usage = SqlBudget.current();
+        if (usage == null) {
+            return connection;
+        }
+        return proxy(Connection.class, connection, (method, args, result) -> switch (method.getName()) {
+            case "prepareStatement" -> proxy(PreparedStatement.class, (Statement) result,
+                    statementHandler(usage, (String) args[0]));
+            case "prepareCall" -> proxy(CallableStatement.class, (Statement) result,
+                    statementHandler(usage, (String) args[0]));
+            case "createStatement" -> proxy(Statement.class, (Statement) result, statementHandler(usage, null));
+            default -> result;
+        });
+    }
+
+    private static ResultHandler statementHandler(SqlBudget.Usage usage, String preparedSql) {
+        return (method, args, result) -> {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                usage.statement(preparedSql != null || args == null || args.length == 0 ? preparedSql : (String) args[0]);
+            }
+            if (result instanceof ResultSet resultSet && (name.equals("executeQuery") || name.equals("getResultSet"))) {
+                return proxy(ResultSet.class, resultSet, (rsMethod, rsArgs, rsResult) -> {
+                    if (rsMethod.getName().equals("next") && Boolean.TRUE.equals(rsResult)) {
+                        usage.row();
+                    }
+                    return rsResult;
+                });
+            }
+            return result;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Object target, ResultHandler handler) {
+        if (target == null) {
+            return null;
+        }
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            return handler.handle(method, args, result);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ResultHandler {
+        Object handle(Method method, Object[] args, Object result) throws SQLException;
+    }
+}
@@ -0,0 +1,72 @@
+package com.sadi.backend.configs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a {@link SqlBudget} usage around each request, records its statement and row counts per endpoint,
+ * and logs endpoints that go over the configured budget along with the statement they repeated most.
+ * Work a request hands to another thread, such as a streamed export, is not counted.
+ */
+@Slf4j
+public class SqlBudgetFilter extends OncePerRequestFilter {
+    private final int maxStatements;
+    private final long maxRows;
+    private final Meter.MeterProvider<DistributionSummary> statements;
+    private final Meter.MeterProvider<DistributionSummary> rows;
+    private final Meter.MeterProvider<Counter> overBudget;
+
+    public SqlBudgetFilter(int maxStatements, long maxRows, MeterRegistry meterRegistry) {
+        this.maxStatements = maxStatements;
+        this.maxRows = maxRows;
+        this.statements = DistributionSummary.builder("http.server.requests.sql.statements")
+                .description("SQL statements executed per request")
+                .withRegistry(meterRegistry);
+        this.rows = DistributionSummary.builder("http.server.requests.sql.rows")
+                .description("Rows fetched per request")
+                .withRegistry(meterRegistry);
+        this.overBudget = Counter.builder("http.server.requests.sql.over-budget")
+                .description("Requests that executed more statements or fetched more rows than budgeted")
+                .withRegistry(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        SqlBudget.Usage usage = SqlBudget.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlBudget.close();
+            request.setAttribute(SqlBudget.USAGE_ATTRIBUTE, usage);
+            record(request, usage);
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlBudget.Usage usage) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        String method = request.getMethod();
+        statements.withTags("method", method, "uri", uri).record(usage.getStatements());
+        rows.withTags("method", method, "uri", uri).record(usage.getRows());
+
+        if (usage.getStatements() > maxStatements || usage.getRows() > maxRows) {
+            overBudget.withTags("method", method, "uri", uri).increment();
+            log.warn("{} {} went over its SQL budget: {} statements (budget {}), {} rows (budget {}), most repeated: {}",
+                    method, uri, usage.getStatements(), maxStatements, usage.getRows(), maxRows,
+                    usage.mostRepeated().map(e -> e.getValue() + "x " + e.getKey()).orElse("none"));
+        }
+    }
+}
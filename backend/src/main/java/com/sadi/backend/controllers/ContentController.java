@@ -1,13 +1,18 @@
 package com.sadi.backend.controllers;
 
-import com.sadi.backend.dtos.responses.TopicDto;
+import com.sadi.backend.configs.RateLimited;
 import com.sadi.backend.dtos.requests.ContentCreateUpdateRequest;
+import com.sadi.backend.dtos.requests.ContentFilter;
 import com.sadi.backend.dtos.requests.ContentTopicCreateRequest;
 import com.sadi.backend.dtos.responses.ContentFullResponse;
+import com.sadi.backend.dtos.responses.ContentSearchHit;
 import com.sadi.backend.dtos.responses.ContentShortResponse;
-import com.sadi.backend.dtos.responses.TopicListResponse;
+import com.sadi.backend.dtos.responses.ContentState;
+import com.sadi.backend.dtos.responses.CursorPageResponse;
+import com.sadi.backend.dtos.responses.SlicedModel;
 import com.sadi.backend.dtos.responses.VoteResponse;
 import com.sadi.backend.entities.Content;
+import com.sadi.backend.enums.CountPolicy;
 import com.sadi.backend.services.ContentService;
 import com.sadi.backend.services.ContentTopicService;
 import jakarta.validation.Valid;
@@ -15,24 +20,32 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
-import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/v1/contents")
 @Slf4j
 public class ContentController {
+    private static final String MIN_DATE = "1000-01-01";
+    private static final String MAX_DATE = "9999-12-31";
+
     private final ContentService contentService;
     private final ContentTopicService contentTopicService;
 
@@ -42,6 +55,7 @@ public class ContentController {
     }
 
     @PostMapping
+    @RateLimited("submissions")
     public ResponseEntity<Void> create(@Valid @RequestBody ContentCreateUpdateRequest req) {
         log.debug("Request to create a content received with {}", req);
         UUID id = contentService.addContent(req);
@@ -53,10 +67,11 @@ public class ContentController {
     @PutMapping("/{id}")
     public ResponseEntity<Void> update (
             @Valid @RequestBody ContentCreateUpdateRequest req,
-            @PathVariable UUID id
+            @PathVariable UUID id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         log.debug("Request to update a content received with {}", req);
-        contentService.updateContent(id, req);
+        contentService.updateContent(id, req, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -70,6 +85,7 @@ public class ContentController {
     }
 
     @PutMapping("/{id}/vote")
+    @RateLimited("votes")
     public ResponseEntity<VoteResponse> vote (
             @PathVariable UUID id
     ){
@@ -79,9 +95,9 @@ public class ContentController {
     }
 
     @GetMapping
-    public ResponseEntity<PagedModel<ContentShortResponse>> getAll (
-            @RequestParam(required = false, defaultValue = "1000-01-01") LocalDate startDate,
-            @RequestParam(required = false, defaultValue = "9999-12-31") LocalDate endDate,
+    public ResponseEntity<?> getAll (
+            @RequestParam(required = false, defaultValue = MIN_DATE) LocalDate startDate,
+            @RequestParam(required = false, defaultValue = MAX_DATE) LocalDate endDate,
             @RequestParam(required = false) String authorId,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String authorName,
@@ -90,33 +106,95 @@ public class ContentController {
             @RequestParam(required = false, defaultValue = "DESC") Sort.Direction sortDirection,
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "10") Integer size,
-            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId
+            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId,
+            @RequestParam(required = false, defaultValue = "EXACT") CountPolicy countPolicy
     ){
         log.debug("Req to get blogs");
         Pageable pageable = PageRequest.of(page, size);
         Instant startTime = startDate.atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
         Instant endTime = endDate.atTime(23, 58).atZone(ZoneId.of(zoneId)).toInstant();
-        Specification<Content> spec = contentService.getSpecification(
+        ContentFilter filter = new ContentFilter(
+                startDate.equals(LocalDate.parse(MIN_DATE)) ? null : startTime,
+                endDate.equals(LocalDate.parse(MAX_DATE)) ? null : endTime,
+                authorId,
+                title,
+                authorName,
+                topicId
+        );
+        Specification<Content> spec = contentService.getSpecification(filter, sortType, sortDirection);
+
+        Slice<ContentShortResponse> res = contentService.filterContents(spec, sortType, pageable, countPolicy,
+                filter.filterKey());
+        if (res instanceof Page<ContentShortResponse> pageRes) {
+            return ResponseEntity.ok(new PagedModel<>(pageRes));
+        }
+        return ResponseEntity.ok(new SlicedModel<>(res));
+    }
+
+    @GetMapping("/feed")
+    public ResponseEntity<CursorPageResponse<ContentShortResponse>> getFeed (
+            @RequestParam(required = false, defaultValue = "1000-01-01") LocalDate startDate,
+            @RequestParam(required = false, defaultValue = "9999-12-31") LocalDate endDate,
+            @RequestParam(required = false) String authorId,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String authorName,
+            @RequestParam(required = false) String topicId,
+            @RequestParam(required = false, defaultValue = "VOTES") Content.SortCategory sortType,
+            @RequestParam(required = false, defaultValue = "DESC") Sort.Direction sortDirection,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId
+    ){
+        log.debug("Req to get blog feed after cursor {}", cursor);
+        Instant startTime = startDate.atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
+        Instant endTime = endDate.atTime(23, 58).atZone(ZoneId.of(zoneId)).toInstant();
+        Specification<Content> spec = contentService.getFilterSpecification(new ContentFilter(
                 startTime,
                 endTime,
                 authorId,
                 title,
                 authorName,
-                topicId,
-                sortType,
-                sortDirection
-        );
+                topicId
+        ));
+
+        return ResponseEntity.ok(contentService.filterContentsAfter(spec, sortType, sortDirection, cursor, size));
+    }
 
-        Page<ContentShortResponse> res = contentService.filterContents(spec, pageable);
+    @GetMapping("/search")
+    public ResponseEntity<PagedModel<ContentSearchHit>> search (
+            @RequestParam String query,
+            @RequestParam(required = false, defaultValue = MIN_DATE) LocalDate startDate,
+            @RequestParam(required = false, defaultValue = MAX_DATE) LocalDate endDate,
+            @RequestParam(required = false) String topicId,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId
+    ){
+        log.debug("Req to search blogs with query {}", query);
+        Pageable pageable = PageRequest.of(page, size);
+        Instant startTime = startDate.atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
+        Instant endTime = endDate.atTime(23, 58).atZone(ZoneId.of(zoneId)).toInstant();
+        Page<ContentSearchHit> res = contentService.searchContents(query, startTime, endTime, topicId, pageable);
         return ResponseEntity.ok(new PagedModel<>(res));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ContentFullResponse> getFullBlog(
-            @PathVariable UUID id
+            @PathVariable UUID id,
+            WebRequest request
     ){
         log.debug("get blog with id: {}", id);
-        return ResponseEntity.ok(contentService.getContentWithAuthorInfo(id));
+        ContentState state = contentService.getContentState(id);
+        String etag = contentService.getETag(state);
+        // the tag covers the reader's own vote, so shared caches must not store it
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(contentService.getContentWithAuthorInfo(id, state));
     }
 
     @PostMapping("/topics")
@@ -137,8 +215,13 @@ public class ContentController {
     }
 
     @GetMapping("/topics")
-    public ResponseEntity<TopicListResponse> getTopics() {
-        List<TopicDto> topics = contentTopicService.getTopics();
-        return ResponseEntity.ok(new TopicListResponse(topics));
+    public ResponseEntity<byte[]> getTopics() {
+        // the body is already serialized; a matching If-None-Match is answered with 304 by Spring
+        ContentTopicService.TopicCatalogue catalogue = contentTopicService.getCatalogue();
+        return ResponseEntity.ok()
+                .eTag(catalogue.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(catalogue.json());
     }
 }
@@ -4,6 +4,7 @@ import com.sadi.backend.entities.User;
 import com.sadi.backend.enums.Role;
 import com.sadi.backend.repositories.UserRepository;
 import com.sadi.backend.services.AuthService;
+import com.sadi.backend.services.LeaderboardIndex;
 import com.sadi.backend.services.UserService;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
@@ -23,11 +24,14 @@ public class GarbageController {
     private final UserService userService;
     private final UserRepository userRepository;
     private final AuthService authService;
+    private final LeaderboardIndex leaderboardIndex;
 
-    public GarbageController(UserService userService, UserRepository userRepository, AuthService authService) {
+    public GarbageController(UserService userService, UserRepository userRepository, AuthService authService,
+                             LeaderboardIndex leaderboardIndex) {
         this.userService = userService;
         this.userRepository = userRepository;
         this.authService = authService;
+        this.leaderboardIndex = leaderboardIndex;
     }
 
     @GetMapping
@@ -46,6 +50,7 @@ public class GarbageController {
                 role
         );
         userRepository.save(user);
+        leaderboardIndex.update(user);
         authService.addScope(userId, role);
         return ResponseEntity.ok().build();
     }
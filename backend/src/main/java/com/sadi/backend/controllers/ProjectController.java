@@ -1,15 +1,24 @@
 package com.sadi.backend.controllers;
 
+import com.sadi.backend.configs.RateLimited;
 import com.sadi.backend.dtos.requests.ProjectCreateUpdateRequest;
+import com.sadi.backend.dtos.requests.ProjectFilter;
 import com.sadi.backend.dtos.requests.ProjectPriorityUpdateRequest;
 import com.sadi.backend.dtos.requests.ProjectResponseRequest;
+import com.sadi.backend.dtos.requests.ProjectResponseVerifyRequest;
 import com.sadi.backend.dtos.responses.ProjectFullResponse;
 import com.sadi.backend.dtos.responses.ProjectResFullResponse;
 import com.sadi.backend.dtos.responses.ProjectResShortResponse;
+import com.sadi.backend.dtos.responses.ProjectSearchHit;
 import com.sadi.backend.dtos.responses.ProjectShortResponse;
+import com.sadi.backend.dtos.responses.ResponseVerificationResult;
+import com.sadi.backend.dtos.responses.SlicedModel;
 import com.sadi.backend.entities.Project;
 import com.sadi.backend.entities.ProjectResponse;
+import com.sadi.backend.enums.CountPolicy;
+import com.sadi.backend.enums.ExportFormat;
 import com.sadi.backend.enums.ProjectType;
+import com.sadi.backend.services.ProjectResponseExporter;
 import com.sadi.backend.services.ProjectResponseService;
 import com.sadi.backend.services.ProjectService;
 import jakarta.validation.Valid;
@@ -17,33 +26,48 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/v1/projects")
 @Slf4j
 public class ProjectController {
+    private static final String MIN_DATE = "1000-01-01";
+    private static final String MAX_DATE = "9999-12-31";
 
     private final ProjectService projectService;
     private final ProjectResponseService projectResponseService;
+    private final ProjectResponseExporter projectResponseExporter;
 
-    public ProjectController(ProjectService projectService, ProjectResponseService projectResponseService) {
+    public ProjectController(ProjectService projectService, ProjectResponseService projectResponseService,
+                             ProjectResponseExporter projectResponseExporter) {
         this.projectService = projectService;
         this.projectResponseService = projectResponseService;
+        this.projectResponseExporter = projectResponseExporter;
     }
 
     @PostMapping
+    @RateLimited("submissions")
     public ResponseEntity<Project> createProject(@Valid @RequestBody ProjectCreateUpdateRequest req) {
         log.debug("Request to create a project req {}", req);
         UUID id = projectService.createProject(req);
@@ -55,9 +79,10 @@ public class ProjectController {
     @PutMapping("/{id}")
     public ResponseEntity<Void> updateProject(
             @PathVariable UUID id,
-            @Valid @RequestBody ProjectCreateUpdateRequest req) {
+            @Valid @RequestBody ProjectCreateUpdateRequest req,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         log.debug("Request to update a project with id {} req {}", id, req);
-        projectService.updateProject(req, id);
+        projectService.updateProject(req, id, ifMatch);
         return ResponseEntity.noContent().build();
     }
 
@@ -79,9 +104,9 @@ public class ProjectController {
     }
 
     @GetMapping
-    public ResponseEntity<PagedModel<ProjectShortResponse>> getAll (
-            @RequestParam(required = false, defaultValue = "1000-01-01") LocalDate startDate,
-            @RequestParam(required = false, defaultValue = "9999-12-31") LocalDate endDate,
+    public ResponseEntity<?> getAll (
+            @RequestParam(required = false, defaultValue = MIN_DATE) LocalDate startDate,
+            @RequestParam(required = false, defaultValue = MAX_DATE) LocalDate endDate,
             @RequestParam(required = false) String authorId,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String authorName,
@@ -90,31 +115,64 @@ public class ProjectController {
             @RequestParam(required = false, defaultValue = "DESC") Sort.Direction sortDirection,
             @RequestParam(required = false, defaultValue = "0") Integer page,
             @RequestParam(required = false, defaultValue = "10") Integer size,
-            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId
+            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId,
+            @RequestParam(required = false, defaultValue = "EXACT") CountPolicy countPolicy
     ) {
         log.debug("Request to get all projects");
         Pageable pageable = PageRequest.of(page, size);
         Instant startTime = startDate.atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
         Instant endTime = endDate.atTime(23, 58).atZone(ZoneId.of(zoneId)).toInstant();
 
-        Specification<Project> spec = projectService.getSpecification(
-                startTime,endTime,authorId,type, title, authorName, sortType, sortDirection
+        ProjectFilter filter = new ProjectFilter(
+                startDate.equals(LocalDate.parse(MIN_DATE)) ? null : startTime,
+                endDate.equals(LocalDate.parse(MAX_DATE)) ? null : endTime,
+                authorId, title, authorName, type
         );
-        Page<ProjectShortResponse> res = projectService.filterProjects(spec, pageable);
-        return ResponseEntity.ok(new PagedModel<>(res));
+        Specification<Project> spec = projectService.getSpecification(filter, sortType, sortDirection);
+        Slice<ProjectShortResponse> res = projectService.filterProjects(spec, sortType, pageable, countPolicy,
+                filter.filterKey());
+        if (res instanceof Page<ProjectShortResponse> pageRes) {
+            return ResponseEntity.ok(new PagedModel<>(pageRes));
+        }
+        return ResponseEntity.ok(new SlicedModel<>(res));
+
+    }
 
+    @GetMapping("/search")
+    public ResponseEntity<PagedModel<ProjectSearchHit>> search (
+            @RequestParam String query,
+            @RequestParam(required = false, defaultValue = MIN_DATE) LocalDate startDate,
+            @RequestParam(required = false, defaultValue = MAX_DATE) LocalDate endDate,
+            @RequestParam(required = false) ProjectType type,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "10") Integer size,
+            @RequestParam(required = false, defaultValue = "Asia/Dhaka") String zoneId
+    ) {
+        log.debug("Request to search projects with query {}", query);
+        Pageable pageable = PageRequest.of(page, size);
+        Instant startTime = startDate.atStartOfDay().atZone(ZoneId.of(zoneId)).toInstant();
+        Instant endTime = endDate.atTime(23, 58).atZone(ZoneId.of(zoneId)).toInstant();
+        Page<ProjectSearchHit> res = projectService.searchProjects(query, startTime, endTime, type, pageable);
+        return ResponseEntity.ok(new PagedModel<>(res));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<ProjectFullResponse> getProject(
-            @PathVariable UUID id
+            @PathVariable UUID id,
+            WebRequest request
     ) {
         log.debug("Request to get project with id {}", id);
+        String etag = projectService.getETag(id);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
         ProjectFullResponse res = projectService.getProjectFullRes(id);
-        return ResponseEntity.ok(res);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(res);
     }
 
     @PostMapping("/{projectId}/responses")
+    @RateLimited("project-responses")
     public ResponseEntity<Void> addResponses(
             @PathVariable UUID projectId,
             @Valid @RequestBody ProjectResponseRequest req
@@ -132,15 +190,39 @@ public class ProjectController {
             @PathVariable UUID projectId,
             @RequestParam(required = false) Boolean isVerified,
             @RequestParam(required = false, defaultValue = "CREATED_AT")ProjectResponse.SortCategory sortType,
-            @RequestParam(required = false, defaultValue = "ASC") Sort.Direction sortDirection
+            @RequestParam(required = false, defaultValue = "ASC") Sort.Direction sortDirection,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "10") Integer size
             )
     {
         log.debug("Request to get responses with id {}", projectId);
-        Pageable pageable = PageRequest.of(0, 10, Sort.by(sortDirection, sortType.getValue()));
+        if (size < 1 || size > 100) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be between 1 and 100, use the export for more");
+        }
+        Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortType.getValue()));
         Page<ProjectResShortResponse> res = projectResponseService.getResponses(projectId, isVerified, pageable);
         return ResponseEntity.ok(new PagedModel<>(res));
     }
 
+    @GetMapping("/{projectId}/responses/export")
+    public ResponseEntity<StreamingResponseBody> exportResponses(
+            @PathVariable UUID projectId,
+            @RequestParam(required = false) Boolean isVerified,
+            @RequestParam(required = false, defaultValue = "CSV") ExportFormat format
+    ) {
+        log.debug("Request to export responses of project {} as {}", projectId, format);
+        projectResponseExporter.checkAccess(projectId);
+        projectResponseExporter.reserveSlot();
+        StreamingResponseBody body = out -> projectResponseExporter.export(projectId, isVerified, format, out);
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("project-" + projectId + "-responses." + format.getExtension())
+                .build();
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
     @GetMapping("/responses/{id}")
     public ResponseEntity<ProjectResFullResponse> getProjectResponse(
             @PathVariable UUID id
@@ -158,5 +240,13 @@ public class ProjectController {
         projectResponseService.verifyProjectResponse(id, verify);
         return ResponseEntity.noContent().build();
     }
+
+    @PutMapping("/responses/verification")
+    public ResponseEntity<List<ResponseVerificationResult>> verifyProjectResponses(
+            @Valid @RequestBody ProjectResponseVerifyRequest req
+    ) {
+        log.debug("Request to set verification of {} project responses to {}", req.ids().size(), req.verify());
+        return ResponseEntity.ok(projectResponseService.verifyProjectResponses(req));
+    }
 }
 
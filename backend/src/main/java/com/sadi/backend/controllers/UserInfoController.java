@@ -2,18 +2,23 @@ package com.sadi.backend.controllers;
 
 import com.sadi.backend.dtos.requests.UserInfoUpdateReq;
 import com.sadi.backend.dtos.responses.LeaderboardEntry;
+import com.sadi.backend.dtos.responses.ScoreEventResponse;
 import com.sadi.backend.dtos.responses.UserInfoResponse;
 import com.sadi.backend.dtos.responses.UserLeaderboardDto;
-import com.sadi.backend.entities.User;
+import com.sadi.backend.dtos.responses.UserProfile;
+import com.sadi.backend.services.ScoreLedger;
 import com.sadi.backend.services.UserService;
 import com.sadi.backend.utils.SecurityUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Objects;
 
 @RestController
@@ -21,9 +26,11 @@ import java.util.Objects;
 public class UserInfoController {
 
     private final UserService userService;
+    private final ScoreLedger scoreLedger;
 
-    public UserInfoController(UserService userService) {
+    public UserInfoController(UserService userService, ScoreLedger scoreLedger) {
         this.userService = userService;
+        this.scoreLedger = scoreLedger;
     }
 
     @PutMapping
@@ -40,11 +47,11 @@ public class UserInfoController {
             userId = SecurityUtils.getName();
         }
 
-        User user = userService.getUser(userId);
-        Long rank = userService.getRank(userId, user.getScore());
-        return ResponseEntity.ok(new UserInfoResponse(user.getId(),
-                user.getFullName(), user.getRole(), user.getEmail(), user.getProfilePicture(), user.getCredit(),
-                user.getScore(), rank + 1));
+        UserProfile user = userService.getProfile(userId);
+        Long rank = userService.getRank(userId, user.score());
+        return ResponseEntity.ok(new UserInfoResponse(user.id(),
+                user.fullName(), user.role(), user.email(), user.profilePicture(), user.credit(),
+                user.score(), rank));
     }
     @GetMapping("/leaderboard")
     public ResponseEntity<PagedModel<UserLeaderboardDto>> getLeaderboard(
@@ -55,4 +62,31 @@ public class UserInfoController {
         Page<UserLeaderboardDto> res = userService.getLeaderboard(pageable);
         return ResponseEntity.ok(new PagedModel<>(res));
     }
+
+    @GetMapping("/score-history")
+    public ResponseEntity<PagedModel<ScoreEventResponse>> getScoreHistory(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false, defaultValue = "0") Integer page,
+            @RequestParam(required = false, defaultValue = "20") Integer size
+    ){
+        if (Objects.isNull(userId)) {
+            userId = SecurityUtils.getName();
+        }
+        Page<ScoreEventResponse> res = scoreLedger.getHistory(userId, PageRequest.of(page, size));
+        return ResponseEntity.ok(new PagedModel<>(res));
+    }
+
+    @GetMapping("/leaderboard/around")
+    public ResponseEntity<List<UserLeaderboardDto>> getLeaderboardAround(
+            @RequestParam(required = false) String userId,
+            @RequestParam(required = false, defaultValue = "5") Integer radius
+    ){
+        if (Objects.isNull(userId)) {
+            userId = SecurityUtils.getName();
+        }
+        if (radius < 0 || radius > 50) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "radius must be between 0 and 50");
+        }
+        return ResponseEntity.ok(userService.getLeaderboardAround(userId, radius));
+    }
 }
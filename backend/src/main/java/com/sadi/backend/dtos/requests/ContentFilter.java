@@ -0,0 +1,35 @@
+package com.sadi.backend.dtos.requests;
+
+import com.sadi.backend.utils.FilterKey;
+
+import java.time.Instant;
+
+/**
+ * Listing filters for contents, normalized once so the query and its count key always agree. A null
+ * value means the filter is not applied.
+ */
+public record ContentFilter(
+        Instant startTime,
+        Instant endTime,
+        String authorId,
+        String title,
+        String authorName,
+        String topicId
+) {
+    public ContentFilter {
+        authorId = FilterKey.normalize(authorId);
+        title = FilterKey.normalizeIgnoringCase(title);
+        authorName = FilterKey.normalizeIgnoringCase(authorName);
+        topicId = FilterKey.normalize(topicId);
+    }
+
+    public FilterKey filterKey() {
+        return FilterKey.of("contents")
+                .with("startTime", startTime)
+                .with("endTime", endTime)
+                .with("authorId", authorId)
+                .with("title", title)
+                .with("authorName", authorName)
+                .with("topicId", topicId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.sadi.backend.dtos.requests;
+
+import com.sadi.backend.enums.ProjectType;
+import com.sadi.backend.utils.FilterKey;
+
+import java.time.Instant;
+
+/**
+ * Listing filters for projects, normalized once so the query and its count key always agree. A null
+ * value means the filter is not applied.
+ */
+public record ProjectFilter(
+        Instant startTime,
+        Instant endTime,
+        String authorId,
+        String title,
+        String authorName,
+        ProjectType type
+) {
+    public ProjectFilter {
+        authorId = FilterKey.normalize(authorId);
+        title = FilterKey.normalizeIgnoringCase(title);
+        authorName = FilterKey.normalizeIgnoringCase(authorName);
+    }
+
+    public FilterKey filterKey() {
+        return FilterKey.of("projects")
+                .with("startTime", startTime)
+                .with("endTime", endTime)
+                .with("authorId", authorId)
+                .with("title", title)
+                .with("authorName", authorName)
+                .with("type", type);
+    }
+}
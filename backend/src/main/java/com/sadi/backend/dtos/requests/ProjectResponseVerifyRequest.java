@@ -0,0 +1,16 @@
+package com.sadi.backend.dtos.requests;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ProjectResponseVerifyRequest(
+        @NotEmpty(message = "ids can't be empty")
+        @Size(max = 1000, message = "at most 1000 responses can be verified at once")
+        List<@NotNull(message = "ids can't contain null") UUID> ids,
+        @NotNull(message = "verify field can't be null") Boolean verify
+) {
+}
@@ -0,0 +1,26 @@
+package com.sadi.backend.dtos.responses;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The part of {@link ContentFullResponse} that is the same for every reader.
+ */
+public record ContentDetail(
+        UUID id,
+        String topicId,
+        String title,
+        String body,
+        String authorId,
+        String authorName,
+        String authorProfilePicture,
+        String coverPhoto,
+        String summary,
+        Instant createdAt,
+        Long version
+) {
+    public ContentFullResponse toFullResponse(UUID voteByUser, int upvoteCount) {
+        return new ContentFullResponse(id, topicId, title, body, voteByUser, authorId, authorName,
+                authorProfilePicture, coverPhoto, summary, upvoteCount, createdAt);
+    }
+}
@@ -0,0 +1,19 @@
+package com.sadi.backend.dtos.responses;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface ContentSearchHit {
+    UUID getId();
+    String getTopicId();
+    String getTitle();
+    String getAuthorId();
+    String getAuthorName();
+    String getAuthorProfilePicture();
+    String getCoverPhoto();
+    String getSummary();
+    Integer getUpvoteCount();
+    Instant getCreatedAt();
+    Float getRank();
+    String getSnippet();
+}
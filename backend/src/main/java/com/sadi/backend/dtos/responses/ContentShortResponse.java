@@ -1,5 +1,7 @@
 package com.sadi.backend.dtos.responses;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -14,7 +16,8 @@ public record ContentShortResponse(
         String coverPhoto,
         String summary,
         Integer upvoteCount,
-        Instant createdAt
-
+        Instant createdAt,
+        // only needed to build feed cursors
+        @JsonIgnore Double hotScore
 ) {
 }
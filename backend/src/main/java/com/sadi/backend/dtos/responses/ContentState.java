@@ -0,0 +1,18 @@
+package com.sadi.backend.dtos.responses;
+
+import java.util.UUID;
+
+/**
+ * Everything a content ETag is derived from, read without touching the body.
+ */
+public record ContentState(
+        Long version,
+        Integer upvoteCount,
+        UUID voteByUser,
+        String authorName,
+        String authorProfilePicture
+) {
+    public ContentState withUpvoteCount(int upvoteCount) {
+        return new ContentState(version, upvoteCount, voteByUser, authorName, authorProfilePicture);
+    }
+}
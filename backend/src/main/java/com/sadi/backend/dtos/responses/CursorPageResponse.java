@@ -0,0 +1,10 @@
+package com.sadi.backend.dtos.responses;
+
+import java.util.List;
+
+public record CursorPageResponse<T>(
+        List<T> content,
+        Integer size,
+        String nextCursor
+) {
+}
@@ -0,0 +1,15 @@
+package com.sadi.backend.dtos.responses;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ProjectResExportRow(
+        UUID id,
+        String userId,
+        String userName,
+        String bkash,
+        Boolean isVerified,
+        Instant createdAt,
+        String body
+) {
+}
@@ -0,0 +1,18 @@
+package com.sadi.backend.dtos.responses;
+
+import com.sadi.backend.enums.ProjectType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public interface ProjectSearchHit {
+    UUID getId();
+    String getTitle();
+    String getAuthorId();
+    String getAuthorName();
+    String getAuthorProfilePicture();
+    Instant getCreatedAt();
+    ProjectType getType();
+    Float getRank();
+    String getSnippet();
+}
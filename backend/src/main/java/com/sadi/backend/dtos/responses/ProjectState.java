@@ -0,0 +1,11 @@
+package com.sadi.backend.dtos.responses;
+
+/**
+ * Everything a project ETag is derived from, read without touching the body.
+ */
+public record ProjectState(
+        Long version,
+        String authorName,
+        String authorProfilePicture
+) {
+}
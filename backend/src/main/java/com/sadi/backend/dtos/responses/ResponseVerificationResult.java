@@ -0,0 +1,12 @@
+package com.sadi.backend.dtos.responses;
+
+import java.util.UUID;
+
+/**
+ * Outcome for one id of a bulk verification: {@code UPDATED}, {@code UNCHANGED}, {@code NOT_FOUND} or
+ * {@code FORBIDDEN}.
+ */
+public interface ResponseVerificationResult {
+    UUID getId();
+    String getStatus();
+}
@@ -0,0 +1,16 @@
+package com.sadi.backend.dtos.responses;
+
+import com.sadi.backend.enums.ScoreEventType;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record ScoreEventResponse(
+        Long id,
+        ScoreEventType type,
+        Long scoreDelta,
+        Long creditDelta,
+        UUID sourceId,
+        Instant createdAt
+) {
+}
@@ -0,0 +1,25 @@
+package com.sadi.backend.dtos.responses;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Slice counterpart of {@link org.springframework.data.web.PagedModel}: same {@code content}/{@code page}
+ * layout, but with {@code hasNext} in place of totals.
+ */
+public record SlicedModel<T>(
+        List<T> content,
+        SliceMetadata page
+) {
+    public SlicedModel(Slice<T> slice) {
+        this(slice.getContent(), new SliceMetadata(slice.getSize(), slice.getNumber(), slice.hasNext()));
+    }
+
+    public record SliceMetadata(
+            long size,
+            long number,
+            boolean hasNext
+    ) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.sadi.backend.dtos.responses;
+
+import com.sadi.backend.enums.Role;
+
+public record UserProfile(
+        String id,
+        String fullName,
+        Role role,
+        String email,
+        String profilePicture,
+        Long credit,
+        Long score
+) {
+    public UserProfile withTotals(long score, long credit) {
+        return new UserProfile(id, fullName, role, email, profilePicture, credit, score);
+    }
+}
@@ -0,0 +1,7 @@
+package com.sadi.backend.dtos.responses;
+
+public interface UserScoreStats {
+    Long getUsers();
+    Long getTotalScore();
+    Long getDistinctScores();
+}
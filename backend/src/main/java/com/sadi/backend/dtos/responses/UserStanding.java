@@ -0,0 +1,9 @@
+package com.sadi.backend.dtos.responses;
+
+public record UserStanding(
+        String id,
+        String fullName,
+        String profilePicture,
+        Long score
+) {
+}
@@ -40,12 +40,23 @@ public class Content {
     @Column(nullable = false, length = 1000)
     private String summary;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, columnDefinition = "TEXT")
+    @ToString.Exclude
     private String body;
 
-    @Column(name = "upvote_count", nullable = false)
+    // written only by the vote flush, so saving an edit never overwrites a newer count
+    @Column(name = "upvote_count", nullable = false, updatable = false)
     private Integer upvoteCount;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
+    // generated by the database from upvote_count and created_at
+    @Column(name = "hot_score", insertable = false, updatable = false)
+    private Double hotScore;
+
     @CreatedDate
     @Column(nullable = false)
     private Instant createdAt;
@@ -68,7 +79,8 @@ public class Content {
     @RequiredArgsConstructor
     public enum SortCategory implements BaseSortCategory {
         CREATED_AT("createdAt"),
-        VOTES("voteCount");
+        VOTES("upvoteCount"),
+        HOT("hotScore");
 
         private final String value;
     }
@@ -11,7 +11,9 @@ import java.util.UUID;
 @Getter
 @Setter
 @ToString
-@Table(name = "content_votes")
+@Table(name = "content_votes", uniqueConstraints = {
+        @UniqueConstraint(name = "uc_content_votes_content_user", columnNames = {"content_id", "user_id"})
+})
 public class ContentVote {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -30,7 +30,9 @@ public class Project {
     @Column(nullable = false)
     private String title;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, columnDefinition = "TEXT")
+    @ToString.Exclude
     private String body;
 
     @Enumerated(EnumType.STRING)
@@ -40,6 +42,10 @@ public class Project {
     @Column(nullable = false)
     private Integer priority;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @CreatedDate
     @Column(nullable = false)
     private Instant createdAt;
@@ -33,7 +33,9 @@ public class ProjectResponse {
     @ToString.Exclude
     private Project project;
 
+    @Basic(fetch = FetchType.LAZY)
     @Column(nullable = false, columnDefinition = "TEXT")
+    @ToString.Exclude
     private String body;
 
     @Column(nullable = false)
@@ -0,0 +1,46 @@
+package com.sadi.backend.entities;
+
+import com.sadi.backend.enums.ScoreEventType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Append-only ledger row. Rows are written with plain SQL by {@link com.sadi.backend.services.ScoreLedger};
+ * the entity only serves reads.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+@ToString
+@Table(name = "score_events")
+public class ScoreEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private ScoreEventType type;
+
+    @Column(nullable = false)
+    private Long scoreDelta;
+
+    @Column(nullable = false)
+    private Long creditDelta;
+
+    private UUID sourceId;
+
+    @Column(nullable = false)
+    private Boolean aggregated;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -31,10 +31,11 @@ public class User {
     @Column(length = 1000)
     private String profilePicture;
 
-    @Column(nullable = false)
+    // both are maintained by ScoreLedger with relative updates, so saving a profile edit must not write them
+    @Column(nullable = false, updatable = false)
     private Long credit;
 
-    @Column(nullable = false)
+    @Column(nullable = false, updatable = false)
     private Long score;
 
     @CreatedDate
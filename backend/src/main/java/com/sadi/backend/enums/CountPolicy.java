@@ -0,0 +1,8 @@
+package com.sadi.backend.enums;
+
+public enum CountPolicy {
+    EXACT,
+    CACHED,
+    ESTIMATED,
+    NONE
+}
@@ -0,0 +1,26 @@
+package com.sadi.backend.enums;
+
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+public enum ExportFormat {
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
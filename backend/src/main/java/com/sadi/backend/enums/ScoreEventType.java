@@ -0,0 +1,27 @@
+package com.sadi.backend.enums;
+
+/**
+ * Reasons a user's score or credit changes, with the amounts awarded per unit.
+ */
+public enum ScoreEventType {
+    OPENING_BALANCE(0, 0),
+    RESPONSE_VERIFIED(10, 1),
+    RESPONSE_UNVERIFIED(-10, -1),
+    UPVOTES_RECEIVED(1, 0);
+
+    private final long score;
+    private final long credit;
+
+    ScoreEventType(long score, long credit) {
+        this.score = score;
+        this.credit = credit;
+    }
+
+    public long getScore() {
+        return score;
+    }
+
+    public long getCredit() {
+        return credit;
+    }
+}
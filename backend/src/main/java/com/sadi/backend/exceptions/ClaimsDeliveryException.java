@@ -0,0 +1,14 @@
+package com.sadi.backend.exceptions;
+
+public class ClaimsDeliveryException extends Exception {
+    private final boolean retryable;
+
+    public ClaimsDeliveryException(String message, boolean retryable, Throwable cause) {
+        super(message, cause);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -2,17 +2,24 @@ package com.sadi.backend.exceptions;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 
 import java.net.URI;
+import java.sql.SQLTransientConnectionException;
 import java.util.Objects;
 
 @RestControllerAdvice
@@ -38,4 +45,46 @@ public class CustomResponseEntityExceptionHandler extends ResponseEntityExceptio
         return this.handleExceptionInternal(ex, body, headers, status, request);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    protected ResponseEntity<Object> handleOptimisticLockingFailure(OptimisticLockingFailureException ex,
+                                                                    WebRequest request) {
+        // lost the race between the If-Match check and the versioned UPDATE
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT,
+                "The resource was modified concurrently, reload it and try again");
+        body.setTitle("Concurrent modification");
+        body.setInstance(URI.create(request.getDescription(false)));
+
+        return this.handleExceptionInternal(ex, body, new HttpHeaders(), HttpStatus.CONFLICT, request);
+    }
+
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    protected ResponseEntity<Object> handleConnectionUnavailable(Exception ex, WebRequest request) throws Exception {
+        // the bulkhead or the pool timed out handing out a connection; anything else is a real failure
+        if (!(NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLTransientConnectionException)) {
+            throw ex;
+        }
+        log.warn("No database connection available: {}", ex.getMessage());
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "The server is busy, try again shortly");
+        body.setTitle("Service unavailable");
+        body.setInstance(URI.create(request.getDescription(false)));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return this.handleExceptionInternal(ex, body, headers, HttpStatus.SERVICE_UNAVAILABLE, request);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    protected ResponseEntity<Object> handleRateLimitExceeded(RateLimitExceededException ex, WebRequest request) {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests, try again later");
+        body.setTitle("Rate limit exceeded");
+        body.setInstance(URI.create(request.getDescription(false)));
+
+        // whole seconds, rounded up so a client that waits exactly this long gets through
+        long seconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(seconds));
+        return this.handleExceptionInternal(ex, body, headers, HttpStatus.TOO_MANY_REQUESTS, request);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.sadi.backend.exceptions;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String policy, Duration retryAfter) {
+        super("Rate limit " + policy + " exceeded");
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
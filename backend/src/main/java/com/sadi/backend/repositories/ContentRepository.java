@@ -1,17 +1,50 @@
 package com.sadi.backend.repositories;
 
-import com.sadi.backend.dtos.responses.ContentFullResponse;
+import com.sadi.backend.dtos.responses.ContentDetail;
+import com.sadi.backend.dtos.responses.ContentState;
+import com.sadi.backend.dtos.responses.ContentSearchHit;
 import com.sadi.backend.entities.Content;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
 public interface ContentRepository extends JpaRepository<Content, UUID>, JpaSpecificationExecutor<Content> {
-    @Query("select new com.sadi.backend.dtos.responses.ContentFullResponse(b.id, b.topic.id, b.title, b.body, (select bv.id from ContentVote bv where bv.content.id = :id and bv.user.id = :userId), b.user.id, b.user.fullName, b.user.profilePicture, b.coverPhoto, b.summary, b.upvoteCount, b.createdAt) from Content b where b.id = :id")
-    Optional<ContentFullResponse> getFullBlogInfo(UUID id, String userId);
+    @Query("select new com.sadi.backend.dtos.responses.ContentDetail(b.id, b.topic.id, b.title, b.body, b.user.id, b.user.fullName, b.user.profilePicture, b.coverPhoto, b.summary, b.createdAt, b.version) from Content b where b.id = :id")
+    Optional<ContentDetail> findDetail(UUID id);
+
+    @Query("select new com.sadi.backend.dtos.responses.ContentState(b.version, b.upvoteCount, (select v.id from ContentVote v where v.content.id = :id and v.user.id = :userId), b.user.fullName, b.user.profilePicture) from Content b where b.id = :id")
+    Optional<ContentState> findState(UUID id, String userId);
+
+    @Query(value = """
+        SELECT c.id AS "id", c.topic_id AS "topicId", c.title AS "title", c.user_id AS "authorId",
+               u.full_name AS "authorName", u.profile_picture AS "authorProfilePicture", c.cover_photo AS "coverPhoto",
+               c.summary AS "summary", c.upvote_count AS "upvoteCount", c.created_at AS "createdAt",
+               ts_rank_cd(c.search_vector, q.query) AS "rank",
+               ts_headline('bn_en', c.body, q.query, 'MaxFragments=2, MaxWords=25, MinWords=8, StartSel=**, StopSel=**') AS "snippet"
+        FROM contents c
+        JOIN users u ON u.id = c.user_id
+        CROSS JOIN websearch_to_tsquery('bn_en', :query) AS q(query)
+        WHERE c.search_vector @@ q.query
+          AND c.created_at BETWEEN :startTime AND :endTime
+          AND (CAST(:topicId AS VARCHAR) IS NULL OR c.topic_id = :topicId)
+        ORDER BY "rank" DESC, c.id
+        """,
+        countQuery = """
+        SELECT count(*)
+        FROM contents c
+        CROSS JOIN websearch_to_tsquery('bn_en', :query) AS q(query)
+        WHERE c.search_vector @@ q.query
+          AND c.created_at BETWEEN :startTime AND :endTime
+          AND (CAST(:topicId AS VARCHAR) IS NULL OR c.topic_id = :topicId)
+        """,
+        nativeQuery = true)
+    Page<ContentSearchHit> search(String query, Instant startTime, Instant endTime, String topicId, Pageable pageable);
 }
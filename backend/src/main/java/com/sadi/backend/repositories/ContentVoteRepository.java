@@ -1,13 +1,22 @@
 package com.sadi.backend.repositories;
 
-import com.sadi.backend.entities.Content;
 import com.sadi.backend.entities.ContentVote;
-import com.sadi.backend.entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
-import java.util.Optional;
 import java.util.UUID;
 
 public interface ContentVoteRepository extends JpaRepository<ContentVote, UUID> {
-    Optional<ContentVote> findByContentAndUser(Content content, User user);
+    @Modifying
+    @Query(value = "DELETE FROM content_votes WHERE content_id = :contentId AND user_id = :userId", nativeQuery = true)
+    int deleteVote(UUID contentId, String userId);
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO content_votes (id, user_id, content_id)
+        SELECT gen_random_uuid(), :userId, c.id FROM contents c WHERE c.id = :contentId
+        ON CONFLICT (content_id, user_id) DO NOTHING
+        """, nativeQuery = true)
+    int insertVote(UUID contentId, String userId);
 }
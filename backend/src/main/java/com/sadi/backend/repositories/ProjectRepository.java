@@ -1,12 +1,17 @@
 package com.sadi.backend.repositories;
 
 import com.sadi.backend.dtos.responses.ProjectFullResponse;
+import com.sadi.backend.dtos.responses.ProjectSearchHit;
+import com.sadi.backend.dtos.responses.ProjectState;
 import com.sadi.backend.entities.Project;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +20,31 @@ public interface ProjectRepository extends JpaRepository<Project, UUID>, JpaSpec
     @Query("select new com.sadi.backend.dtos.responses.ProjectFullResponse(b.id, b.title, b.body, b.user.id, b.user.fullName, b.user.profilePicture, b.createdAt, b.type, b.priority) from Project b where b.id = :id")
     Optional<ProjectFullResponse> getProjectFullResponse(UUID id);
 
+    @Query("select new com.sadi.backend.dtos.responses.ProjectState(b.version, b.user.fullName, b.user.profilePicture) from Project b where b.id = :id")
+    Optional<ProjectState> findState(UUID id);
+
+    @Query(value = """
+        SELECT p.id AS "id", p.title AS "title", p.user_id AS "authorId", u.full_name AS "authorName",
+               u.profile_picture AS "authorProfilePicture", p.created_at AS "createdAt", p.type AS "type",
+               ts_rank_cd(p.search_vector, q.query) AS "rank",
+               ts_headline('bn_en', p.body, q.query, 'MaxFragments=2, MaxWords=25, MinWords=8, StartSel=**, StopSel=**') AS "snippet"
+        FROM projects p
+        JOIN users u ON u.id = p.user_id
+        CROSS JOIN websearch_to_tsquery('bn_en', :query) AS q(query)
+        WHERE p.search_vector @@ q.query
+          AND p.created_at BETWEEN :startTime AND :endTime
+          AND (CAST(:type AS VARCHAR) IS NULL OR p.type = :type)
+        ORDER BY "rank" DESC, p.id
+        """,
+        countQuery = """
+        SELECT count(*)
+        FROM projects p
+        CROSS JOIN websearch_to_tsquery('bn_en', :query) AS q(query)
+        WHERE p.search_vector @@ q.query
+          AND p.created_at BETWEEN :startTime AND :endTime
+          AND (CAST(:type AS VARCHAR) IS NULL OR p.type = :type)
+        """,
+        nativeQuery = true)
+    Page<ProjectSearchHit> search(String query, Instant startTime, Instant endTime, String type, Pageable pageable);
+
 }
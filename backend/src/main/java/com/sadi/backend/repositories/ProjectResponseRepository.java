@@ -2,6 +2,7 @@ package com.sadi.backend.repositories;
 
 import com.sadi.backend.dtos.responses.ProjectResFullResponse;
 import com.sadi.backend.dtos.responses.ProjectResShortResponse;
+import com.sadi.backend.dtos.responses.ResponseVerificationResult;
 import com.sadi.backend.entities.ProjectResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -9,6 +10,8 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -18,6 +21,57 @@ public interface ProjectResponseRepository extends JpaRepository<ProjectResponse
     @Query("select new com.sadi.backend.dtos.responses.ProjectResShortResponse(b.id, b.user.id, b.user.fullName, b.user.profilePicture, b.bkash, b.isVarified, b.createdAt, b.body) from ProjectResponse b where b.project.id = :projectId and (:isVerified is null or b.isVarified = :isVerified)")
     Page<ProjectResShortResponse> getProjectShortResponse(UUID projectId, Boolean isVerified, Pageable pageable);
 
+    @Query("select b from ProjectResponse b join fetch b.project where b.id = :id")
+    Optional<ProjectResponse> findWithProjectById(UUID id);
+
     @Query("select new com.sadi.backend.dtos.responses.ProjectResFullResponse(b.id, b.body, b.user.id, b.user.fullName, b.user.profilePicture, b.bkash, b.isVarified, b.createdAt) from ProjectResponse b where b.id = :id")
     Optional<ProjectResFullResponse> getProjectFullResponse(UUID id);
+
+    /**
+     * Sets the verification state of every response owned through its project by the user, and reports an
+     * outcome per requested id in request order. Rows are locked in id order so overlapping bulk updates
+     * can't deadlock. Every changed response also gets a score event for its author.
+     */
+    @Query(value = """
+        WITH requested AS (
+            SELECT r.id, min(r.ord) AS ord
+            FROM unnest(CAST(ARRAY[:ids] AS uuid[])) WITH ORDINALITY AS r(id, ord)
+            GROUP BY r.id
+        ),
+        targets AS (
+            SELECT q.id, q.ord, pr.id AS found, p.user_id = :userId AS owned
+            FROM requested q
+            LEFT JOIN project_responses pr ON pr.id = q.id
+            LEFT JOIN projects p ON p.id = pr.project_id
+        ),
+        locked AS (
+            SELECT pr.id
+            FROM project_responses pr
+            JOIN targets t ON t.id = pr.id AND t.owned
+            WHERE pr.is_varified <> :verify
+            ORDER BY pr.id
+            FOR UPDATE OF pr
+        ),
+        updated AS (
+            UPDATE project_responses pr SET is_varified = :verify
+            FROM locked l
+            WHERE pr.id = l.id
+            RETURNING pr.id, pr.user_id
+        ),
+        events AS (
+            INSERT INTO score_events (user_id, type, score_delta, credit_delta, source_id)
+            SELECT u.user_id, :eventType, :scoreDelta, :creditDelta, u.id
+            FROM updated u
+        )
+        SELECT t.id AS "id",
+               CASE WHEN t.found IS NULL THEN 'NOT_FOUND'
+                    WHEN NOT t.owned THEN 'FORBIDDEN'
+                    WHEN u.id IS NOT NULL THEN 'UPDATED'
+                    ELSE 'UNCHANGED' END AS "status"
+        FROM targets t
+        LEFT JOIN updated u ON u.id = t.id
+        ORDER BY t.ord
+        """, nativeQuery = true)
+    List<ResponseVerificationResult> verifyAll(Collection<UUID> ids, String userId, boolean verify, String eventType,
+                                               long scoreDelta, long creditDelta);
 }
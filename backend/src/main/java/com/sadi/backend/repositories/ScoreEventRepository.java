@@ -0,0 +1,16 @@
+package com.sadi.backend.repositories;
+
+import com.sadi.backend.dtos.responses.ScoreEventResponse;
+import com.sadi.backend.entities.ScoreEvent;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ScoreEventRepository extends JpaRepository<ScoreEvent, Long> {
+    @Query(value = "select new com.sadi.backend.dtos.responses.ScoreEventResponse(e.id, e.type, e.scoreDelta, e.creditDelta, e.sourceId, e.createdAt) from ScoreEvent e where e.userId = :userId order by e.createdAt desc, e.id desc",
+            countQuery = "select count(e) from ScoreEvent e where e.userId = :userId")
+    Page<ScoreEventResponse> findHistory(String userId, Pageable pageable);
+}
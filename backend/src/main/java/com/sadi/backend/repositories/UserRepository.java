@@ -2,21 +2,34 @@ package com.sadi.backend.repositories;
 
 import com.sadi.backend.dtos.responses.LeaderboardEntry;
 import com.sadi.backend.dtos.responses.UserLeaderboardDto;
+import com.sadi.backend.dtos.responses.UserProfile;
+import com.sadi.backend.dtos.responses.UserScoreStats;
+import com.sadi.backend.dtos.responses.UserStanding;
 import com.sadi.backend.entities.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 
 public interface UserRepository extends JpaRepository<User, String> {
     Optional<User> findByEmail(String email);
 
-    @Query("select count(distinct u.score) from User u where u.score < :score")
+    @Query("select new com.sadi.backend.dtos.responses.UserProfile(u.id, u.fullName, u.role, u.email, u.profilePicture, u.credit, u.score) from User u where u.id = :id")
+    Optional<UserProfile> findProfile(String id);
+
+    @Query("select count(distinct u.score) from User u where u.score > :score")
     Long getUserRank(Long score);
 
+    @Query("select new com.sadi.backend.dtos.responses.UserStanding(u.id, u.fullName, u.profilePicture, u.score) from User u")
+    List<UserStanding> findAllStandings();
+
+    @Query("select count(u) as users, coalesce(sum(u.score), 0) as totalScore, count(distinct u.score) as distinctScores from User u")
+    UserScoreStats getScoreStats();
+
     @Query(value = """
         SELECT new com.sadi.backend.dtos.responses.UserLeaderboardDto(
             u.id, 
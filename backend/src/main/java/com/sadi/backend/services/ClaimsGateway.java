@@ -0,0 +1,11 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.enums.Role;
+import com.sadi.backend.exceptions.ClaimsDeliveryException;
+
+/**
+ * Writes a user's role into the custom claims of their identity provider account.
+ */
+public interface ClaimsGateway {
+    void setRole(String userId, Role role) throws ClaimsDeliveryException;
+}
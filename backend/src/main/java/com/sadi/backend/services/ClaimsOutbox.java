@@ -0,0 +1,162 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.enums.Role;
+import com.sadi.backend.exceptions.ClaimsDeliveryException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Transactional outbox for custom claims updates. {@link #enqueue} writes a row in the caller's
+ * transaction, so the update exists exactly when the change that caused it commits. A scheduled worker
+ * leases due rows with {@code SKIP LOCKED}, calls the {@link ClaimsGateway} without holding a connection,
+ * deletes what was delivered and reschedules failures with jittered exponential backoff. Rows that fail
+ * permanently or too often are kept as {@code DEAD} for inspection.
+ * <p>
+ * Only the oldest pending row of a user is ever leased, so a later role change can't be overtaken by a
+ * retry of an earlier one.
+ */
+@Slf4j
+@Service
+public class ClaimsOutbox {
+    private static final String INSERT_SQL = "INSERT INTO claims_outbox (user_id, role) VALUES (?, ?)";
+    private static final String LEASE_SQL = """
+            UPDATE claims_outbox SET attempts = attempts + 1, next_attempt_at = now() + ? * interval '1 millisecond'
+            WHERE id IN (
+                SELECT c.id FROM claims_outbox c
+                WHERE c.status = 'PENDING' AND c.next_attempt_at <= now()
+                  AND NOT EXISTS (SELECT 1 FROM claims_outbox o
+                                  WHERE o.user_id = c.user_id AND o.status = 'PENDING' AND o.id < c.id)
+                ORDER BY c.id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, user_id, role, attempts
+            """;
+    private static final String DELETE_SQL = "DELETE FROM claims_outbox WHERE id = ?";
+    private static final String RETRY_SQL = """
+            UPDATE claims_outbox SET next_attempt_at = now() + ? * interval '1 millisecond', last_error = ?
+            WHERE id = ?
+            """;
+    private static final String DEAD_SQL = "UPDATE claims_outbox SET status = 'DEAD', last_error = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ClaimsGateway claimsGateway;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration maxBackoff;
+    private final Duration lease;
+    private final Timer deliveryTimer;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter deadLettered;
+
+    public ClaimsOutbox(
+            JdbcTemplate jdbcTemplate,
+            ClaimsGateway claimsGateway,
+            MeterRegistry meterRegistry,
+            @Value("${claims.outbox.batch-size:50}") int batchSize,
+            @Value("${claims.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${claims.outbox.base-backoff:1s}") Duration baseBackoff,
+            @Value("${claims.outbox.max-backoff:10m}") Duration maxBackoff,
+            @Value("${claims.outbox.lease:1m}") Duration lease
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimsGateway = claimsGateway;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = baseBackoff;
+        this.maxBackoff = maxBackoff;
+        this.lease = lease;
+        this.deliveryTimer = Timer.builder("claims.outbox.delivery")
+                .description("Time taken by a single claims update call")
+                .register(meterRegistry);
+        this.delivered = Counter.builder("claims.outbox.delivered").register(meterRegistry);
+        this.failed = Counter.builder("claims.outbox.failures").register(meterRegistry);
+        this.deadLettered = Counter.builder("claims.outbox.dead").register(meterRegistry);
+    }
+
+    /**
+     * Queues a role update for the user. Joins the caller's transaction when there is one.
+     */
+    public void enqueue(String userId, Role role) {
+        jdbcTemplate.update(INSERT_SQL, userId, role.name());
+    }
+
+    @Scheduled(fixedDelayString = "${claims.outbox.poll-interval-ms:1000}")
+    public void deliver() {
+        List<Entry> due;
+        try {
+            // leasing commits on its own, so no connection is held while the gateway is called
+            due = jdbcTemplate.query(LEASE_SQL, (rs, i) -> new Entry(rs.getLong("id"), rs.getString("user_id"),
+                    Role.valueOf(rs.getString("role")), rs.getInt("attempts")), lease.toMillis(), batchSize);
+        } catch (DataAccessException e) {
+            log.error("Failed to lease claims updates: {}", e.getMessage());
+            return;
+        }
+        for (Entry entry : due) {
+            deliver(entry);
+        }
+    }
+
+    private void deliver(Entry entry) {
+        try {
+            deliveryTimer.recordCallable(() -> {
+                claimsGateway.setRole(entry.userId(), entry.role());
+                return null;
+            });
+            jdbcTemplate.update(DELETE_SQL, entry.id());
+            delivered.increment();
+        } catch (ClaimsDeliveryException e) {
+            failed(entry, e.getMessage(), e.isRetryable());
+        } catch (DataAccessException e) {
+            // delivered but not deleted; the lease expires and the update is repeated, which is harmless
+            log.error("Failed to remove delivered claims update {}: {}", entry.id(), e.getMessage());
+        } catch (Exception e) {
+            failed(entry, e.toString(), true);
+        }
+    }
+
+    private void failed(Entry entry, String error, boolean retryable) {
+        failed.increment();
+        try {
+            if (!retryable || entry.attempts() >= maxAttempts) {
+                log.error("Giving up on claims update {} for user {} after {} attempts: {}", entry.id(),
+                        entry.userId(), entry.attempts(), error);
+                jdbcTemplate.update(DEAD_SQL, error, entry.id());
+                deadLettered.increment();
+            } else {
+                log.warn("Claims update {} for user {} failed, attempt {}: {}", entry.id(), entry.userId(),
+                        entry.attempts(), error);
+                jdbcTemplate.update(RETRY_SQL, backoff(entry.attempts()).toMillis(), error, entry.id());
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to record the failure of claims update {}: {}", entry.id(), e.getMessage());
+        }
+    }
+
+    /**
+     * Exponential backoff capped at the maximum, with equal jitter so retries of a burst of failures
+     * don't all land at the same moment.
+     */
+    Duration backoff(int attempts) {
+        long ceiling = maxBackoff.toMillis();
+        long exponential = baseBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = exponential <= 0 ? ceiling : Math.min(ceiling, exponential);
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private record Entry(long id, String userId, Role role, int attempts) {
+    }
+}
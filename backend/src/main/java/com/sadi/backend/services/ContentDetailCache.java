@@ -0,0 +1,84 @@
+package com.sadi.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadi.backend.dtos.responses.ContentDetail;
+import com.sadi.backend.utils.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Shared, reader-independent content details keyed by content id. Entries are weighed by their
+ * approximate heap size, so a few very long posts can't push out hundreds of short ones. Upvote counts
+ * change with every vote and are read with the content state instead. Invalidations take effect once
+ * the writing transaction commits.
+ */
+@Service
+public class ContentDetailCache {
+    // object headers, the UUID, the Instant and the short strings of an entry
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private final Cache<UUID, ContentDetail> details;
+
+    public ContentDetailCache(
+            @Value("${content.detail-cache.maximum-weight:64MB}") DataSize maximumWeight,
+            @Value("${content.detail-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.details = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight.toBytes())
+                .weigher(ContentDetailCache::weigh)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, details, "contentDetails");
+    }
+
+    /**
+     * Cached details, or the loader's result when absent. A loader returning null caches nothing.
+     */
+    public ContentDetail get(UUID id, Function<UUID, ContentDetail> loader) {
+        return details.get(id, loader);
+    }
+
+    /**
+     * Replaces the entry with the loader's result, for callers that found it older than the row.
+     */
+    public ContentDetail reload(UUID id, Function<UUID, ContentDetail> loader) {
+        return details.asMap().compute(id, (key, stale) -> loader.apply(key));
+    }
+
+    public void invalidate(UUID id) {
+        AfterCommit.run(() -> details.invalidate(id));
+    }
+
+    /**
+     * Drops every entry showing the author's name and picture. Profile changes are rare, so scanning the
+     * cache beats keeping an index by author.
+     */
+    public void invalidateAuthor(String authorId) {
+        AfterCommit.run(() -> details.asMap().values().removeIf(detail -> authorId.equals(detail.authorId())));
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(details::invalidateAll);
+    }
+
+    private static int weigh(UUID id, ContentDetail detail) {
+        long chars = length(detail.body()) + length(detail.summary()) + length(detail.title())
+                + length(detail.coverPhoto()) + length(detail.authorName()) + length(detail.authorProfilePicture());
+        // Bengali text is stored as UTF-16, so count two bytes per char
+        return (int) Math.min(Integer.MAX_VALUE, ENTRY_OVERHEAD_BYTES + 2 * chars);
+    }
+
+    private static long length(String value) {
+        return value == null ? 0 : value.length();
+    }
+}
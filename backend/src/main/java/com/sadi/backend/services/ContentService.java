@@ -1,16 +1,29 @@
 package com.sadi.backend.services;
 
 import com.sadi.backend.dtos.requests.ContentCreateUpdateRequest;
+import com.sadi.backend.dtos.requests.ContentFilter;
+import com.sadi.backend.dtos.responses.ContentDetail;
+import com.sadi.backend.dtos.responses.ContentState;
 import com.sadi.backend.dtos.responses.ContentFullResponse;
+import com.sadi.backend.dtos.responses.ContentSearchHit;
+import com.sadi.backend.dtos.responses.CursorPageResponse;
 import com.sadi.backend.dtos.responses.ContentShortResponse;
 import com.sadi.backend.entities.Content;
 import com.sadi.backend.entities.ContentTopic;
 import com.sadi.backend.entities.ContentVote;
 import com.sadi.backend.entities.User;
+import com.sadi.backend.enums.CountPolicy;
 import com.sadi.backend.repositories.ContentRepository;
 import com.sadi.backend.repositories.ContentVoteRepository;
 import com.sadi.backend.specifications.ContentSpecification;
+import com.sadi.backend.utils.FeedCursor;
+import com.sadi.backend.utils.FilterKey;
 import com.sadi.backend.utils.SecurityUtils;
+import com.sadi.backend.utils.VersionTag;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
@@ -19,14 +32,18 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 @Service
@@ -35,15 +52,39 @@ public class ContentService {
     private final UserService userService;
     private final ContentVoteRepository contentVoteRepository;
     private final ContentTopicService contentTopicService;
+    private final TotalCountService totalCountService;
+    private final VoteCountAccumulator voteCountAccumulator;
+    private final ContentDetailCache contentDetailCache;
+    private final Meter.MeterProvider<Timer> filterTimer;
+    private final Timer voteTimer;
+    private final Meter.MeterProvider<Counter> voteCounter;
+    private final Timer detailTimer;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    public ContentService(ContentRepository contentRepository, UserService userService, ContentVoteRepository contentVoteRepository, ContentTopicService contentTopicService) {
+    public ContentService(ContentRepository contentRepository, UserService userService, ContentVoteRepository contentVoteRepository, ContentTopicService contentTopicService, TotalCountService totalCountService, VoteCountAccumulator voteCountAccumulator, ContentDetailCache contentDetailCache, MeterRegistry meterRegistry) {
         this.contentRepository = contentRepository;
         this.userService = userService;
         this.contentVoteRepository = contentVoteRepository;
         this.contentTopicService = contentTopicService;
+        this.totalCountService = totalCountService;
+        this.voteCountAccumulator = voteCountAccumulator;
+        this.contentDetailCache = contentDetailCache;
+        this.filterTimer = Timer.builder("contents.filter")
+                .description("Offset-paged content listings by sort and filter combination")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.voteTimer = Timer.builder("contents.vote")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.voteCounter = Counter.builder("contents.votes")
+                .description("Vote toggles by their effect on the vote count")
+                .withRegistry(meterRegistry);
+        this.detailTimer = Timer.builder("contents.detail")
+                .description("Full content lookups, served from the detail cache when possible")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public Content getContent(UUID id) {
@@ -55,7 +96,7 @@ public class ContentService {
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
     public UUID addContent(ContentCreateUpdateRequest req) {
         String userId = SecurityUtils.getName();
-        User user = userService.getUser(userId);
+        User user = userService.getUserReference(userId);
         ContentTopic topic = contentTopicService.getContentTopic(req.topicId());
         Content content = new Content(
                 user,
@@ -70,11 +111,14 @@ public class ContentService {
     }
 
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
-    public void updateContent(UUID id, @Valid ContentCreateUpdateRequest req) {
+    public void updateContent(UUID id, @Valid ContentCreateUpdateRequest req, String ifMatch) {
         String userId = SecurityUtils.getName();
         Content content = getContent(id);
         ContentTopic topic = contentTopicService.getContentTopic(req.topicId());
         verifyContentOwner(content, userId);
+        if (!VersionTag.matches(ifMatch, content.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Content was modified since it was read");
+        }
 
         content.setTitle(req.title());
         content.setBody(req.body());
@@ -82,6 +126,7 @@ public class ContentService {
         content.setSummary(req.summary());
         content.setTopic(topic);
         contentRepository.save(content);
+        contentDetailCache.invalidate(id);
     }
 
     public void verifyContentOwner(Content content, String userId) {
@@ -97,29 +142,122 @@ public class ContentService {
         verifyContentOwner(content, userId);
 
         contentRepository.delete(content);
+        contentDetailCache.invalidate(id);
     }
 
+    @Transactional
     public int voteContent(UUID id) {
+        int change = voteTimer.record(() -> toggleVote(id));
+        voteCounter.withTag("change", switch (change) {
+            case 1 -> "added";
+            case -1 -> "removed";
+            default -> "unchanged";
+        }).increment();
+        return change;
+    }
+
+    private int toggleVote(UUID id) {
         String voterId = SecurityUtils.getName();
-        Content content = getContent(id);
-        User voter = new User(voterId);
-        Optional<ContentVote> vote = contentVoteRepository.findByContentAndUser(content, voter);
         int returnVal;
-        if (vote.isPresent()) {
-            contentVoteRepository.delete(vote.get());
+        if (contentVoteRepository.deleteVote(id, voterId) > 0) {
             returnVal = -1;
         }
-        else{
-            ContentVote contentVote = new ContentVote(voter, content);
-            contentVoteRepository.save(contentVote);
+        else if (contentVoteRepository.insertVote(id, voterId) > 0) {
             returnVal = 1;
         }
-        content.setUpvoteCount(content.getUpvoteCount() + returnVal);
-        contentRepository.save(content);
+        else if (!contentRepository.existsById(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Content not found");
+        }
+        else {
+            // a concurrent request from the same user inserted the vote between our delete and insert
+            returnVal = 0;
+        }
+        voteCountAccumulator.record(id, returnVal);
         return returnVal;
     }
 
-    public Page<ContentShortResponse> filterContents(Specification<Content> spec, Pageable pageable){
+    @Transactional(readOnly = true)
+    public Slice<ContentShortResponse> filterContents(Specification<Content> spec, Content.SortCategory sortType,
+                                                      Pageable pageable, CountPolicy countPolicy, FilterKey filterKey) {
+        return filterTimer.withTags("sort", sortType.name(), "filters", filterKey.combination(),
+                        "count", countPolicy.name())
+                .record(() -> queryContents(spec, pageable, countPolicy, filterKey));
+    }
+
+    private Slice<ContentShortResponse> queryContents(Specification<Content> spec, Pageable pageable,
+                                                      CountPolicy countPolicy, FilterKey filterKey) {
+        TypedQuery<ContentShortResponse> query = createShortResponseQuery(spec);
+        query.setFirstResult((int) pageable.getOffset());
+
+        if (countPolicy == CountPolicy.NONE) {
+            query.setMaxResults(pageable.getPageSize() + 1);
+            List<ContentShortResponse> result = query.getResultList();
+            boolean hasNext = result.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? result.subList(0, pageable.getPageSize()) : result, pageable, hasNext);
+        }
+
+        query.setMaxResults(pageable.getPageSize());
+        List<ContentShortResponse> result =  query.getResultList();
+        assert spec != null;
+        long total = totalCountService.count(countPolicy, filterKey, () -> contentRepository.count(spec));
+        return new PageImpl<>(result, pageable, total);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ContentShortResponse> filterContentsAfter(Specification<Content> filterSpec,
+                                                                        Content.SortCategory sortType,
+                                                                        Sort.Direction sortDirection,
+                                                                        String cursor, int size) {
+        if (size < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page size must be at least 1");
+        }
+        FeedCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            after = FeedCursor.decode(cursor);
+            after.requireSort(sortType.name(), sortDirection);
+        }
+        Specification<Content> spec = filterSpec.and(seekSpecification(sortType, sortDirection, after));
+
+        TypedQuery<ContentShortResponse> query = createShortResponseQuery(spec);
+        // one extra row tells us whether there is a next page without counting
+        query.setMaxResults(size + 1);
+        List<ContentShortResponse> result = query.getResultList();
+
+        String nextCursor = null;
+        if (result.size() > size) {
+            result = result.subList(0, size);
+            ContentShortResponse last = result.get(size - 1);
+            nextCursor = new FeedCursor(sortType.name(), sortDirection, cursorKey(sortType, last), last.id()).encode();
+        }
+        return new CursorPageResponse<>(result, result.size(), nextCursor);
+    }
+
+    private Specification<Content> seekSpecification(Content.SortCategory sortType, Sort.Direction direction,
+                                                     FeedCursor after) {
+        UUID lastId = after == null ? null : after.id();
+        try {
+            return switch (sortType) {
+                case VOTES -> ContentSpecification.seekAfter(sortType.getValue(), direction,
+                        after == null ? null : Integer.valueOf(after.key()), lastId);
+                case CREATED_AT -> ContentSpecification.seekAfter(sortType.getValue(), direction,
+                        after == null ? null : Instant.parse(after.key()), lastId);
+                case HOT -> ContentSpecification.seekAfter(sortType.getValue(), direction,
+                        after == null ? null : Double.valueOf(after.key()), lastId);
+            };
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    private String cursorKey(Content.SortCategory sortType, ContentShortResponse row) {
+        return switch (sortType) {
+            case VOTES -> row.upvoteCount().toString();
+            case CREATED_AT -> row.createdAt().toString();
+            case HOT -> row.hotScore().toString();
+        };
+    }
+
+    TypedQuery<ContentShortResponse> createShortResponseQuery(Specification<Content> spec) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<ContentShortResponse> cq = cb.createQuery(ContentShortResponse.class);
 
@@ -137,14 +275,7 @@ public class ContentService {
 
         querySelectForRegisteredUser(cq, cb, root, SecurityUtils.getName());
 
-        TypedQuery<ContentShortResponse> query = entityManager.createQuery(cq);
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
-
-        List<ContentShortResponse> result =  query.getResultList();
-        assert spec != null;
-        long total = contentRepository.count(spec);
-        return new PageImpl<>(result, pageable, total);
+        return entityManager.createQuery(cq);
     }
 
     private void querySelectForRegisteredUser(CriteriaQuery<ContentShortResponse> cq, CriteriaBuilder cb, Root<Content> root, String userId) {
@@ -167,42 +298,95 @@ public class ContentService {
                 root.get("coverPhoto"),
                 root.get("summary"),
                 root.get("upvoteCount"),
-                root.get("createdAt")
+                root.get("createdAt"),
+                root.get("hotScore")
         ));
     }
 
-    public Specification<Content> getSpecification(Instant startTime, Instant endTime, String authorId, String title,
-                                                   String authorName, String topicId, Content.SortCategory sortType,
+    public Specification<Content> getSpecification(ContentFilter filter, Content.SortCategory sortType,
                                                    Sort.Direction sortDirection) {
-        Specification<Content> spec = Specification.where(null);
-        if (startTime != null && endTime != null) {
-            spec = spec.and(ContentSpecification.withDateBetween(startTime, endTime));
-        }
-        if(title != null && !title.isEmpty()) {
-            spec = spec.and(ContentSpecification.withTitle(title));
-        }
-        if(authorId != null){
-            spec = spec.and(ContentSpecification.withAuthorId(authorId));
-        }
-        if(authorName != null && !authorName.isEmpty()) {
-            spec = spec.and(ContentSpecification.withAuthorName(authorName));
-        }
-        if(topicId != null && !topicId.isEmpty()) {
-            spec = spec.and(ContentSpecification.withTopicId(topicId));
-        }
+        Specification<Content> spec = getFilterSpecification(filter);
         if(sortType.equals(Content.SortCategory.VOTES))
         {
             spec = spec.and(ContentSpecification.sortByVote(sortDirection));
         }
+        else if(sortType.equals(Content.SortCategory.HOT))
+        {
+            spec = spec.and(ContentSpecification.sortByHotness(sortDirection));
+        }
         else {
             spec = spec.and(ContentSpecification.sortByTimestamp(sortDirection));
         }
         return spec;
     }
 
-    public ContentFullResponse getContentWithAuthorInfo(UUID id) {
-        return contentRepository.getFullBlogInfo(id, SecurityUtils.getName()).orElseThrow(
+    public Specification<Content> getFilterSpecification(ContentFilter filter) {
+        Specification<Content> spec = Specification.where(null);
+        if (filter.startTime() != null || filter.endTime() != null) {
+            spec = spec.and(ContentSpecification.withDateBetween(filter.startTime(), filter.endTime()));
+        }
+        if (filter.title() != null) {
+            spec = spec.and(ContentSpecification.withTitle(filter.title()));
+        }
+        if (filter.authorId() != null) {
+            spec = spec.and(ContentSpecification.withAuthorId(filter.authorId()));
+        }
+        if (filter.authorName() != null) {
+            spec = spec.and(ContentSpecification.withAuthorName(filter.authorName()));
+        }
+        if (filter.topicId() != null) {
+            spec = spec.and(ContentSpecification.withTopicId(filter.topicId()));
+        }
+        return spec;
+    }
+
+    /**
+     * Version, live upvote count and the reader's vote, read without loading the body.
+     */
+    @Transactional(readOnly = true)
+    public ContentState getContentState(UUID id) {
+        ContentState state = contentRepository.findState(id, SecurityUtils.getName()).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Content with id %s not found", id))
         );
+        return state.withUpvoteCount(state.upvoteCount() + voteCountAccumulator.pending(id));
+    }
+
+    /**
+     * Strong ETag of the full response as seen by the reader the state was read for, author block included.
+     */
+    public String getETag(ContentState state) {
+        return VersionTag.format(state.version(), state.upvoteCount(), state.voteByUser() == null ? 0 : 1,
+                VersionTag.fingerprint(state.authorName(), state.authorProfilePicture()));
+    }
+
+    @Transactional(readOnly = true)
+    public ContentFullResponse getContentWithAuthorInfo(UUID id) {
+        return getContentWithAuthorInfo(id, getContentState(id));
+    }
+
+    @Transactional(readOnly = true)
+    public ContentFullResponse getContentWithAuthorInfo(UUID id, ContentState state) {
+        return detailTimer.record(() -> loadContentWithAuthorInfo(id, state));
+    }
+
+    private ContentFullResponse loadContentWithAuthorInfo(UUID id, ContentState state) {
+        ContentDetail detail = contentDetailCache.get(id, key -> contentRepository.findDetail(key).orElse(null));
+        if (detail != null && (detail.version() < state.version()
+                || !Objects.equals(detail.authorName(), state.authorName())
+                || !Objects.equals(detail.authorProfilePicture(), state.authorProfilePicture()))) {
+            // edited, or its author renamed, on another instance since it was cached here
+            detail = contentDetailCache.reload(id, key -> contentRepository.findDetail(key).orElse(null));
+        }
+        if (detail == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, String.format("Content with id %s not found", id));
+        }
+        return detail.toFullResponse(state.voteByUser(), state.upvoteCount());
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ContentSearchHit> searchContents(String query, Instant startTime, Instant endTime, String topicId,
+                                                 Pageable pageable) {
+        return contentRepository.search(query, startTime, endTime,
+                topicId == null || topicId.isEmpty() ? null : topicId, pageable);
     }
-}
\ No newline at end of file
+}
@@ -1,30 +1,69 @@
 package com.sadi.backend.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.sadi.backend.dtos.responses.TopicDto;
 import com.sadi.backend.dtos.requests.ContentTopicCreateRequest;
+import com.sadi.backend.dtos.responses.TopicListResponse;
 import com.sadi.backend.entities.ContentTopic;
 import com.sadi.backend.repositories.ContentTopicRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class ContentTopicService {
+    private static final String CATALOGUE_KEY = "topics";
+
     private final ContentTopicRepository contentTopicRepository;
+    private final ObjectMapper objectMapper;
+    private final ContentDetailCache contentDetailCache;
+    // a single entry holding every topic; the TTL only bounds staleness caused by other instances
+    private final LoadingCache<String, TopicCatalogue> catalogue;
 
-    public ContentTopicService(ContentTopicRepository contentTopicRepository) {
+    public ContentTopicService(
+            ContentTopicRepository contentTopicRepository,
+            ObjectMapper objectMapper,
+            ContentDetailCache contentDetailCache,
+            MeterRegistry meterRegistry,
+            @Value("${topics.cache.ttl:10m}") Duration ttl
+    ) {
         this.contentTopicRepository = contentTopicRepository;
+        this.objectMapper = objectMapper;
+        this.contentDetailCache = contentDetailCache;
+        this.catalogue = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build(key -> loadCatalogue());
+        CaffeineCacheMetrics.monitor(meterRegistry, catalogue, "topicCatalogue");
     }
 
+    /**
+     * Reference to an existing topic for use as an association. Existence is checked against the cached
+     * catalogue, so no row is read.
+     */
     public ContentTopic getContentTopic(String id) {
-        return contentTopicRepository.findById(id).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Content topic not found")
-        );
+        if (!getCatalogue().byId().containsKey(id)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Content topic not found");
+        }
+        return contentTopicRepository.getReferenceById(id);
     }
 
     public String  addTopic(@Valid ContentTopicCreateRequest req) {
@@ -32,17 +71,46 @@ public class ContentTopicService {
         if (topic.isPresent()) {
             throw new ResponseStatusException(HttpStatus.CONFLICT, "Content topic already exists");
         }
-        return contentTopicRepository.save(new ContentTopic(req.id(), req.description())).getId();
+        String id = contentTopicRepository.save(new ContentTopic(req.id(), req.description())).getId();
+        catalogue.invalidateAll();
+        return id;
     }
 
     public void deleteTopic(String id) {
-        ContentTopic topic = getContentTopic(id);
+        ContentTopic topic = contentTopicRepository.findById(id).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Content topic not found")
+        );
         contentTopicRepository.delete(topic);
+        catalogue.invalidateAll();
+        // the topic's posts are removed with it
+        contentDetailCache.invalidateAll();
     }
 
-    public List<TopicDto> getTopics() {
-        return contentTopicRepository.findAll().stream()
+    public TopicCatalogue getCatalogue() {
+        return catalogue.get(CATALOGUE_KEY);
+    }
+
+    private TopicCatalogue loadCatalogue() {
+        // sorted so every instance serializes, and therefore tags, the same catalogue identically
+        List<TopicDto> topics = contentTopicRepository.findAll().stream()
                 .map(topic -> new TopicDto(topic.getId(), topic.getDescription()))
-                .collect(Collectors.toList());
+                .sorted(Comparator.comparing(TopicDto::id))
+                .toList();
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new TopicListResponse(topics));
+            return new TopicCatalogue(
+                    topics.stream().collect(Collectors.toUnmodifiableMap(TopicDto::id, Function.identity())),
+                    json,
+                    "\"" + HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json), 0, 16) + "\""
+            );
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to build the topic catalogue", e);
+        }
+    }
+
+    /**
+     * Every topic, along with the serialized list response and its strong ETag.
+     */
+    public record TopicCatalogue(Map<String, TopicDto> byId, byte[] json, String etag) {
     }
 }
@@ -0,0 +1,33 @@
+package com.sadi.backend.services;
+
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.auth.AuthErrorCode;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.sadi.backend.enums.Role;
+import com.sadi.backend.exceptions.ClaimsDeliveryException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+
+@Service
+@Profile("!local-auth")
+public class FirebaseClaimsGateway implements ClaimsGateway {
+    private final FirebaseAuth firebaseAuth;
+
+    public FirebaseClaimsGateway(FirebaseApp firebaseApp) {
+        this.firebaseAuth = FirebaseAuth.getInstance(firebaseApp);
+    }
+
+    @Override
+    public void setRole(String userId, Role role) throws ClaimsDeliveryException {
+        try {
+            firebaseAuth.setCustomUserClaims(userId, Collections.singletonMap("scp", role.toString()));
+        } catch (FirebaseAuthException e) {
+            // retrying can't create the account
+            boolean retryable = e.getAuthErrorCode() != AuthErrorCode.USER_NOT_FOUND;
+            throw new ClaimsDeliveryException("Firebase rejected the claims update: " + e.getMessage(), retryable, e);
+        }
+    }
+}
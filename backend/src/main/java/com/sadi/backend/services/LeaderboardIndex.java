@@ -0,0 +1,296 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.dtos.responses.UserLeaderboardDto;
+import com.sadi.backend.dtos.responses.UserScoreStats;
+import com.sadi.backend.dtos.responses.UserStanding;
+import com.sadi.backend.entities.User;
+import com.sadi.backend.repositories.UserRepository;
+import com.sadi.backend.utils.AfterCommit;
+import com.sadi.backend.utils.IndexableSkipList;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory order statistics over user scores. Leaderboard order (score desc, id asc) and the set of
+ * distinct scores are kept in indexable skip lists, so a user's dense rank, a leaderboard page and the
+ * window around a user each cost O(log n) instead of a window function over the whole users table.
+ * <p>
+ * Writers hand over changes once their transaction commits. A periodic check compares the index with
+ * the table and reloads it on any drift, which also picks up scores changed by other instances.
+ * Until the first load finishes, callers get an empty result and fall back to the database.
+ */
+@Slf4j
+@Service
+public class LeaderboardIndex {
+    private static final Comparator<UserStanding> ORDER = Comparator
+            .comparing(UserStanding::score, Comparator.reverseOrder())
+            .thenComparing(UserStanding::id);
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // one load at a time, the startup load may overlap a rebuild or a drift reload
+    private final Lock loadLock = new ReentrantLock();
+    private final Counter driftCounter;
+
+    // both guarded by lock; snapshot stays null until the first load, replay is non-null while loading
+    private Snapshot snapshot;
+    private List<Consumer<Snapshot>> replay;
+
+    public LeaderboardIndex(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.driftCounter = Counter.builder("leaderboard.drift")
+                .description("Consistency checks that found the rank index out of sync with the users table")
+                .register(meterRegistry);
+        Gauge.builder("leaderboard.users", this, LeaderboardIndex::indexedUsers)
+                .register(meterRegistry);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        load();
+    }
+
+    public void load() {
+        loadLock.lock();
+        try {
+            reload();
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void reload() {
+        lock.writeLock().lock();
+        try {
+            replay = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Snapshot loaded = new Snapshot();
+        try {
+            userRepository.findAllStandings().forEach(loaded::put);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                replay = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            // changes committed while the table was being read are applied again; they are idempotent
+            replay.forEach(change -> change.accept(loaded));
+            replay = null;
+            snapshot = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Loaded {} users into the leaderboard index", loaded.byId.size());
+    }
+
+    @Scheduled(fixedDelayString = "${leaderboard.verify-interval-ms:300000}",
+            initialDelayString = "${leaderboard.verify-interval-ms:300000}")
+    public void verify() {
+        UserScoreStats stats = userRepository.getScoreStats();
+        lock.readLock().lock();
+        boolean consistent;
+        try {
+            if (snapshot == null) {
+                return;
+            }
+            consistent = snapshot.byId.size() == stats.getUsers()
+                    && snapshot.totalScore == stats.getTotalScore()
+                    && snapshot.scores.size() == stats.getDistinctScores();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (!consistent) {
+            log.warn("Leaderboard index drifted from the users table, reloading");
+            driftCounter.increment();
+            load();
+        }
+    }
+
+    public void update(User user) {
+        update(new UserStanding(user.getId(), user.getFullName(), user.getProfilePicture(), user.getScore()));
+    }
+
+    public void update(UserStanding standing) {
+        AfterCommit.run(() -> apply(s -> s.put(standing)));
+    }
+
+    /**
+     * Changes the name and picture shown for the user, keeping the indexed score. The score only comes
+     * from the aggregator, a copy read earlier in the request may already be outdated.
+     */
+    public void updateProfile(String userId, String fullName, String profilePicture) {
+        AfterCommit.run(() -> apply(s -> s.updateProfile(userId, fullName, profilePicture)));
+    }
+
+    public void remove(String userId) {
+        AfterCommit.run(() -> apply(s -> s.remove(userId)));
+    }
+
+    /**
+     * Dense rank of the user, 1 for the top score. Empty when the index isn't loaded or doesn't know the user.
+     */
+    public OptionalLong rankOf(String userId) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return OptionalLong.empty();
+            }
+            UserStanding standing = snapshot.byId.get(userId);
+            return standing == null ? OptionalLong.empty() : OptionalLong.of(snapshot.denseRank(standing.score()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<Page<UserLeaderboardDto>> page(Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            int total = snapshot.standings.size();
+            int offset = (int) Math.min(pageable.getOffset(), total);
+            List<UserLeaderboardDto> content = snapshot.standings.range(offset, pageable.getPageSize()).stream()
+                    .map(snapshot::toDto)
+                    .toList();
+            return Optional.of(new PageImpl<>(content, pageable, total));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code radius} entries either side of the user, in leaderboard order.
+     */
+    public Optional<List<UserLeaderboardDto>> around(String userId, int radius) {
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return Optional.empty();
+            }
+            UserStanding standing = snapshot.byId.get(userId);
+            if (standing == null) {
+                return Optional.empty();
+            }
+            int position = snapshot.standings.rank(standing);
+            int from = Math.max(0, position - radius);
+            return Optional.of(snapshot.standings.range(from, position - from + radius + 1).stream()
+                    .map(snapshot::toDto)
+                    .toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Consumer<Snapshot> change) {
+        lock.writeLock().lock();
+        try {
+            if (replay != null) {
+                replay.add(change);
+            }
+            if (snapshot != null) {
+                change.accept(snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private double indexedUsers() {
+        lock.readLock().lock();
+        try {
+            return snapshot == null ? 0 : snapshot.byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class Snapshot {
+        private final IndexableSkipList<UserStanding> standings = new IndexableSkipList<>(ORDER);
+        private final IndexableSkipList<Long> scores = new IndexableSkipList<>(Comparator.reverseOrder());
+        private final Map<Long, Integer> scoreCounts = new HashMap<>();
+        private final Map<String, UserStanding> byId = new HashMap<>();
+        private long totalScore;
+
+        private void put(UserStanding standing) {
+            UserStanding previous = byId.put(standing.id(), standing);
+            if (Objects.equals(previous, standing)) {
+                return;
+            }
+            if (previous != null) {
+                unlink(previous);
+            }
+            standings.add(standing);
+            if (scoreCounts.merge(standing.score(), 1, Integer::sum) == 1) {
+                scores.add(standing.score());
+            }
+            totalScore += standing.score();
+        }
+
+        private void updateProfile(String userId, String fullName, String profilePicture) {
+            UserStanding current = byId.get(userId);
+            if (current != null) {
+                put(new UserStanding(userId, fullName, profilePicture, current.score()));
+            }
+        }
+
+        private void remove(String userId) {
+            UserStanding previous = byId.remove(userId);
+            if (previous != null) {
+                unlink(previous);
+            }
+        }
+
+        private void unlink(UserStanding standing) {
+            standings.remove(standing);
+            if (scoreCounts.merge(standing.score(), -1, Integer::sum) == 0) {
+                scoreCounts.remove(standing.score());
+                scores.remove(standing.score());
+            }
+            totalScore -= standing.score();
+        }
+
+        private long denseRank(long score) {
+            return scores.rank(score) + 1L;
+        }
+
+        private UserLeaderboardDto toDto(UserStanding standing) {
+            return new UserLeaderboardDto(standing.id(), standing.fullName(), standing.profilePicture(),
+                    standing.score(), denseRank(standing.score()));
+        }
+    }
+}
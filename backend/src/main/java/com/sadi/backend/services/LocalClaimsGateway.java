@@ -0,0 +1,31 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.enums.Role;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stand-in for Firebase under local auth, where tokens are minted locally and already carry their scope.
+ * Keeps the delivered roles so tests can assert on them.
+ */
+@Slf4j
+@Service
+@Profile("local-auth")
+public class LocalClaimsGateway implements ClaimsGateway {
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+
+    @Override
+    public void setRole(String userId, Role role) {
+        log.debug("Setting local claims of user {} to {}", userId, role);
+        roles.put(userId, role);
+    }
+
+    public Optional<Role> getRole(String userId) {
+        return Optional.ofNullable(roles.get(userId));
+    }
+}
@@ -0,0 +1,208 @@
+package com.sadi.backend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sadi.backend.dtos.responses.ProjectResExportRow;
+import com.sadi.backend.enums.ExportFormat;
+import com.sadi.backend.utils.SecurityUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams every response of a project straight from a server-side cursor to the client. Postgres only
+ * honours the fetch size inside a transaction, so the export runs in a read-only one and at most one
+ * fetch worth of rows is ever held in memory, however many responses the project has.
+ * <p>
+ * The connection stays borrowed for the whole download, so only a few exports may run at once and each
+ * one is cut off after {@code project-responses.export.timeout}, however slowly the client reads.
+ */
+@Service
+@Slf4j
+public class ProjectResponseExporter {
+    private static final String EXPORT_SQL = """
+            SELECT pr.id, pr.user_id, u.full_name, pr.bkash, pr.is_varified, pr.created_at, pr.body
+            FROM project_responses pr
+            JOIN users u ON u.id = pr.user_id
+            WHERE pr.project_id = ? AND (CAST(? AS BOOLEAN) IS NULL OR pr.is_varified = ?)
+            ORDER BY pr.created_at, pr.id
+            """;
+    private static final String CSV_HEADER = "id,user_id,user_name,bkash,is_verified,created_at,body";
+    private static final int FLUSH_EVERY_ROWS = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProjectService projectService;
+    private final ObjectMapper objectMapper;
+    private final Semaphore slots;
+    private final Duration timeout;
+
+    public ProjectResponseExporter(
+            DataSource dataSource,
+            PlatformTransactionManager transactionManager,
+            ProjectService projectService,
+            ObjectMapper objectMapper,
+            @Value("${project-responses.export.fetch-size:500}") int fetchSize,
+            @Value("${project-responses.export.max-concurrent:2}") int maxConcurrent,
+            @Value("${project-responses.export.timeout:5m}") Duration timeout
+    ) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // also becomes the query timeout of the export statement
+        this.transactionTemplate.setTimeout((int) timeout.toSeconds());
+        this.projectService = projectService;
+        this.objectMapper = objectMapper;
+        this.slots = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+    }
+
+    /**
+     * Fails with 404 or 403 unless the caller owns the project; called before the response is committed.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    public void checkAccess(UUID projectId) {
+        projectService.verifyOwner(projectService.getProject(projectId), SecurityUtils.getName());
+    }
+
+    /**
+     * Takes one of the export slots, failing with 503 when all of them are busy. Called before the response
+     * is committed; {@link #export} gives the slot back.
+     */
+    public void reserveSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports running, try again later");
+        }
+    }
+
+    public void export(UUID projectId, Boolean isVerified, ExportFormat format, OutputStream out) throws IOException {
+        try {
+            stream(projectId, isVerified, format, out);
+        } finally {
+            slots.release();
+        }
+    }
+
+    private void stream(UUID projectId, Boolean isVerified, ExportFormat format, OutputStream out) throws IOException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        RowWriter rowWriter = format == ExportFormat.CSV ? csvWriter(writer) : ndjsonWriter(writer);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                int[] rows = {0};
+                jdbcTemplate.query(EXPORT_SQL, rs -> {
+                    try {
+                        rowWriter.write(toRow(rs));
+                        if (++rows[0] % FLUSH_EVERY_ROWS == 0) {
+                            writer.flush();
+                            // the query timeout doesn't cover time spent blocked on a slow reader
+                            if (System.nanoTime() - deadline > 0) {
+                                throw new TransactionTimedOutException("Export of project " + projectId
+                                        + " exceeded " + timeout);
+                            }
+                        }
+                    } catch (IOException e) {
+                        // most likely the client went away; abandoning the cursor ends the transaction
+                        throw new UncheckedIOException(e);
+                    }
+                }, projectId, isVerified, isVerified);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (TransactionTimedOutException e) {
+            log.warn("Abandoned a partial export: {}", e.getMessage());
+            throw e;
+        }
+        writer.flush();
+    }
+
+    private static ProjectResExportRow toRow(ResultSet rs) throws SQLException {
+        return new ProjectResExportRow(
+                rs.getObject("id", UUID.class),
+                rs.getString("user_id"),
+                rs.getString("full_name"),
+                rs.getString("bkash"),
+                rs.getBoolean("is_varified"),
+                rs.getTimestamp("created_at").toInstant(),
+                rs.getString("body")
+        );
+    }
+
+    private RowWriter csvWriter(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        return row -> {
+            writer.write(row.id().toString());
+            writer.write(',');
+            writer.write(csv(row.userId()));
+            writer.write(',');
+            writer.write(csv(row.userName()));
+            writer.write(',');
+            writer.write(csv(row.bkash()));
+            writer.write(',');
+            writer.write(row.isVerified().toString());
+            writer.write(',');
+            writer.write(row.createdAt().toString());
+            writer.write(',');
+            writer.write(csv(row.body()));
+            writer.write("\r\n");
+        };
+    }
+
+    private RowWriter ndjsonWriter(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // no separator between values, every line is terminated explicitly instead
+        generator.setRootValueSeparator(null);
+        return row -> {
+            objectMapper.writeValue(generator, row);
+            generator.flush();
+            writer.write('\n');
+        };
+    }
+
+    /**
+     * RFC 4180 quoting. Values starting with a formula character are prefixed with a quote so that
+     * spreadsheets don't evaluate user-written text.
+     */
+    static String csv(String value) {
+        if (value == null || value.isEmpty()) {
+            return "";
+        }
+        char first = value.charAt(0);
+        if (first == '=' || first == '+' || first == '-' || first == '@' || first == '\t' || first == '\r') {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ProjectResExportRow row) throws IOException;
+    }
+}
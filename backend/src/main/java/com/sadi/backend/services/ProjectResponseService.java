@@ -1,11 +1,14 @@
 package com.sadi.backend.services;
 
 import com.sadi.backend.dtos.requests.ProjectResponseRequest;
+import com.sadi.backend.dtos.requests.ProjectResponseVerifyRequest;
 import com.sadi.backend.dtos.responses.ProjectResFullResponse;
 import com.sadi.backend.dtos.responses.ProjectResShortResponse;
+import com.sadi.backend.dtos.responses.ResponseVerificationResult;
 import com.sadi.backend.entities.Project;
 import com.sadi.backend.entities.ProjectResponse;
 import com.sadi.backend.entities.User;
+import com.sadi.backend.enums.ScoreEventType;
 import com.sadi.backend.repositories.ProjectResponseRepository;
 import com.sadi.backend.utils.SecurityUtils;
 import jakarta.validation.Valid;
@@ -14,8 +17,10 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -23,11 +28,13 @@ public class ProjectResponseService {
     private final ProjectResponseRepository projectResponseRepository;
     private final UserService userService;
     private final ProjectService projectService;
+    private final ScoreLedger scoreLedger;
 
-    public ProjectResponseService(ProjectResponseRepository projectResponseRepository, UserService userService, ProjectService projectService) {
+    public ProjectResponseService(ProjectResponseRepository projectResponseRepository, UserService userService, ProjectService projectService, ScoreLedger scoreLedger) {
         this.projectResponseRepository = projectResponseRepository;
         this.userService = userService;
         this.projectService = projectService;
+        this.scoreLedger = scoreLedger;
     }
 
     public ProjectResponse getProjectResponse(UUID id) {
@@ -39,7 +46,7 @@ public class ProjectResponseService {
 
     public UUID createProjectResponse(@Valid ProjectResponseRequest req, UUID projectId) {
         String userId = SecurityUtils.getName();
-        User user = userService.getUser(userId);
+        User user = userService.getUserReference(userId);
         Project project = projectService.getProject(projectId);
 
         ProjectResponse projectResponse = new ProjectResponse(
@@ -50,9 +57,13 @@ public class ProjectResponseService {
     }
 
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    @Transactional
     public void verifyProjectResponse(UUID responseId, Boolean verify) {
         String userId = SecurityUtils.getName();
-        ProjectResponse response = getProjectResponse(responseId);
+        // the project comes with the response, its owner's id is read off the user proxy without a query
+        ProjectResponse response = projectResponseRepository.findWithProjectById(responseId).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project response not found")
+        );
         Project project = response.getProject();
 
         if(response.getIsVarified() == verify) return;
@@ -61,12 +72,31 @@ public class ProjectResponseService {
         }
         response.setIsVarified(verify);
         projectResponseRepository.save(response);
+        scoreLedger.record(response.getUser().getId(), scoreEvent(verify), 1, response.getId());
+    }
+
+    /**
+     * Verifies or unverifies many responses in one statement. Responses of projects owned by someone else
+     * are reported as forbidden instead of failing the whole request.
+     */
+    @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    @Transactional
+    public List<ResponseVerificationResult> verifyProjectResponses(@Valid ProjectResponseVerifyRequest req) {
+        ScoreEventType event = scoreEvent(req.verify());
+        return projectResponseRepository.verifyAll(req.ids(), SecurityUtils.getName(), req.verify(), event.name(),
+                event.getScore(), event.getCredit());
+    }
+
+    private static ScoreEventType scoreEvent(boolean verify) {
+        return verify ? ScoreEventType.RESPONSE_VERIFIED : ScoreEventType.RESPONSE_UNVERIFIED;
     }
 
+    @Transactional(readOnly = true)
     public Page<ProjectResShortResponse> getResponses(UUID projectId, Boolean isVerified, Pageable pageable){
         return projectResponseRepository.getProjectShortResponse(projectId, isVerified, pageable);
     }
 
+    @Transactional(readOnly = true)
     public ProjectResFullResponse getResponse(UUID responseId) {
         return projectResponseRepository.getProjectFullResponse(responseId).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Project not found")
@@ -1,15 +1,24 @@
 package com.sadi.backend.services;
 
 import com.sadi.backend.dtos.requests.ProjectCreateUpdateRequest;
+import com.sadi.backend.dtos.requests.ProjectFilter;
 import com.sadi.backend.dtos.requests.ProjectPriorityUpdateRequest;
 import com.sadi.backend.dtos.responses.ProjectFullResponse;
+import com.sadi.backend.dtos.responses.ProjectSearchHit;
 import com.sadi.backend.dtos.responses.ProjectShortResponse;
+import com.sadi.backend.dtos.responses.ProjectState;
 import com.sadi.backend.entities.Project;
 import com.sadi.backend.entities.User;
+import com.sadi.backend.enums.CountPolicy;
 import com.sadi.backend.enums.ProjectType;
 import com.sadi.backend.repositories.ProjectRepository;
 import com.sadi.backend.specifications.ProjectSpecification;
+import com.sadi.backend.utils.FilterKey;
 import com.sadi.backend.utils.SecurityUtils;
+import com.sadi.backend.utils.VersionTag;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.TypedQuery;
@@ -18,11 +27,14 @@ import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
@@ -35,13 +47,21 @@ import java.util.UUID;
 public class ProjectService {
     private final ProjectRepository projectRepository;
     private final UserService userService;
+    private final TotalCountService totalCountService;
+    private final Meter.MeterProvider<Timer> filterTimer;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    public ProjectService(ProjectRepository projectRepository, UserService userService) {
+    public ProjectService(ProjectRepository projectRepository, UserService userService, TotalCountService totalCountService,
+                          MeterRegistry meterRegistry) {
         this.projectRepository = projectRepository;
         this.userService = userService;
+        this.totalCountService = totalCountService;
+        this.filterTimer = Timer.builder("projects.filter")
+                .description("Offset-paged project listings by sort and filter combination")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
     }
 
     public Project getProject(UUID id){
@@ -53,7 +73,7 @@ public class ProjectService {
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
     public UUID createProject(@Valid ProjectCreateUpdateRequest req) {
         String userId = SecurityUtils.getName();
-        User user = userService.getUser(userId);
+        User user = userService.getUserReference(userId);
         Project project = new Project(
                 user,
                 req.title(),
@@ -64,10 +84,13 @@ public class ProjectService {
     }
 
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
-    public void updateProject(@Valid ProjectCreateUpdateRequest req, UUID id) {
+    public void updateProject(@Valid ProjectCreateUpdateRequest req, UUID id, String ifMatch) {
         String userId = SecurityUtils.getName();
         Project project = getProject(id);
         verifyOwner(project, userId);
+        if (!VersionTag.matches(ifMatch, project.getVersion())) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "Project was modified since it was read");
+        }
 
         project.setTitle(req.title());
         project.setBody(req.body());
@@ -98,7 +121,34 @@ public class ProjectService {
         projectRepository.save(project);
     }
 
-    public Page<ProjectShortResponse> filterProjects(Specification<Project> spec, Pageable pageable) {
+    @Transactional(readOnly = true)
+    public Slice<ProjectShortResponse> filterProjects(Specification<Project> spec, Project.SortCategory sortType,
+                                                      Pageable pageable, CountPolicy countPolicy, FilterKey filterKey) {
+        return filterTimer.withTags("sort", sortType.name(), "filters", filterKey.combination(),
+                        "count", countPolicy.name())
+                .record(() -> queryProjects(spec, pageable, countPolicy, filterKey));
+    }
+
+    private Slice<ProjectShortResponse> queryProjects(Specification<Project> spec, Pageable pageable,
+                                                      CountPolicy countPolicy, FilterKey filterKey) {
+        TypedQuery<ProjectShortResponse> query = createShortResponseQuery(spec);
+        query.setFirstResult((int) pageable.getOffset());
+
+        if (countPolicy == CountPolicy.NONE) {
+            query.setMaxResults(pageable.getPageSize() + 1);
+            List<ProjectShortResponse> result = query.getResultList();
+            boolean hasNext = result.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? result.subList(0, pageable.getPageSize()) : result, pageable, hasNext);
+        }
+
+        query.setMaxResults(pageable.getPageSize());
+        List<ProjectShortResponse> result =  query.getResultList();
+        assert spec != null;
+        long total = totalCountService.count(countPolicy, filterKey, () -> projectRepository.count(spec));
+        return new PageImpl<>(result, pageable, total);
+    }
+
+    TypedQuery<ProjectShortResponse> createShortResponseQuery(Specification<Project> spec) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
         CriteriaQuery<ProjectShortResponse> cq = cb.createQuery(ProjectShortResponse.class);
 
@@ -116,14 +166,7 @@ public class ProjectService {
 
         querySelectForRegisteredUser(cq, cb, root);
 
-        TypedQuery<ProjectShortResponse> query = entityManager.createQuery(cq);
-        query.setFirstResult((int) pageable.getOffset());
-        query.setMaxResults(pageable.getPageSize());
-
-        List<ProjectShortResponse> result =  query.getResultList();
-        assert spec != null;
-        long total = projectRepository.count(spec);
-        return new PageImpl<>(result, pageable, total);
+        return entityManager.createQuery(cq);
     }
 
     private void querySelectForRegisteredUser(CriteriaQuery<ProjectShortResponse> cq,
@@ -140,23 +183,40 @@ public class ProjectService {
         ));
     }
 
-    public Specification<Project> getSpecification(Instant startTime, Instant endTime, String authorId, ProjectType type,
-                                                   String title,
-                                                   String authorName, Project.SortCategory sortType,
+    public Specification<Project> getSpecification(ProjectFilter filter, Project.SortCategory sortType,
                                                    Sort.Direction sortDirection){
         Specification<Project> spec = Specification.where(null);
-        return spec.and(ProjectSpecification.withDateBetween(startTime, endTime))
-                .and(ProjectSpecification.withTitle(title))
-                .and(ProjectSpecification.withAuthorId(authorId))
-                .and(ProjectSpecification.withProjectType(type))
-                .and(ProjectSpecification.withAuthorName(authorName))
+        return spec.and(ProjectSpecification.withDateBetween(filter.startTime(), filter.endTime()))
+                .and(ProjectSpecification.withTitle(filter.title()))
+                .and(ProjectSpecification.withAuthorId(filter.authorId()))
+                .and(ProjectSpecification.withProjectType(filter.type()))
+                .and(ProjectSpecification.withAuthorName(filter.authorName()))
                 .and(ProjectSpecification.sortBy(sortDirection, sortType));
 
     }
 
+    @Transactional(readOnly = true)
     public ProjectFullResponse getProjectFullRes(UUID id) {
         return projectRepository.getProjectFullResponse(id).orElseThrow(
                 () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "project not found")
         );
     }
+
+    /**
+     * Strong ETag of the full response, covering the author block as well as the project itself.
+     */
+    @Transactional(readOnly = true)
+    public String getETag(UUID id) {
+        ProjectState state = projectRepository.findState(id).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "project not found")
+        );
+        return VersionTag.format(state.version(),
+                VersionTag.fingerprint(state.authorName(), state.authorProfilePicture()));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ProjectSearchHit> searchProjects(String query, Instant startTime, Instant endTime, ProjectType type,
+                                                 Pageable pageable) {
+        return projectRepository.search(query, startTime, endTime, type == null ? null : type.name(), pageable);
+    }
 }
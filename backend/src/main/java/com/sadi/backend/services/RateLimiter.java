@@ -0,0 +1,109 @@
+package com.sadi.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-key token buckets, one set per named policy. A bucket holds {@code capacity} tokens and regains one
+ * every {@code refill-period}.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the
+ * generic cell rate form of a token bucket), so taking a token is one compare-and-set without locks.
+ * Buckets untouched for the idle expiry are dropped; by then they are full, so a dropped bucket and a
+ * fresh one behave the same.
+ */
+@Service
+public class RateLimiter {
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Duration idleExpiry;
+    private final long maximumKeys;
+    private final LongSupplier nanoClock;
+    private final Map<String, Policy> policies = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimiter(
+            Environment environment,
+            MeterRegistry meterRegistry,
+            @Value("${rate-limit.idle-expiry:10m}") Duration idleExpiry,
+            @Value("${rate-limit.maximum-keys:100000}") long maximumKeys
+    ) {
+        this(environment, meterRegistry, idleExpiry, maximumKeys, System::nanoTime);
+    }
+
+    RateLimiter(Environment environment, MeterRegistry meterRegistry, Duration idleExpiry, long maximumKeys,
+                LongSupplier nanoClock) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+        this.idleExpiry = idleExpiry;
+        this.maximumKeys = maximumKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Takes a token from the key's bucket under the policy.
+     *
+     * @return empty when the call may proceed, otherwise how long until a token is available
+     */
+    public Optional<Duration> tryAcquire(String policyName, String key) {
+        Policy policy = policies.computeIfAbsent(policyName, this::createPolicy);
+        long now = nanoClock.getAsLong();
+        AtomicLong fullAt = policy.buckets.get(key, k -> new AtomicLong(now));
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + policy.intervalNanos;
+            long wait = next - now - policy.burstNanos;
+            if (wait > 0) {
+                policy.throttled.increment();
+                return Optional.of(Duration.ofNanos(wait));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private Policy createPolicy(String name) {
+        int capacity = environment.getProperty("rate-limit." + name + ".capacity", Integer.class, 10);
+        Duration refillPeriod = DurationStyle.detectAndParse(
+                environment.getProperty("rate-limit." + name + ".refill-period", "1s"));
+        if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalStateException("Invalid rate limit policy " + name);
+        }
+        long intervalNanos = refillPeriod.toNanos();
+        long burstNanos = intervalNanos * capacity;
+
+        Cache<String, AtomicLong> buckets = Caffeine.newBuilder()
+                // never drop a bucket before it has had time to refill completely
+                .expireAfterAccess(Duration.ofNanos(Math.max(idleExpiry.toNanos(), burstNanos)))
+                .maximumSize(maximumKeys)
+                .build();
+        Counter throttled = Counter.builder("rate-limit.throttled")
+                .description("Requests rejected with 429 by a rate limit policy")
+                .tag("policy", name)
+                .register(meterRegistry);
+        Gauge.builder("rate-limit.keys", buckets, Cache::estimatedSize)
+                .description("Users with a live bucket under the policy")
+                .tag("policy", name)
+                .register(meterRegistry);
+        return new Policy(intervalNanos, burstNanos, buckets, throttled);
+    }
+
+    private record Policy(long intervalNanos, long burstNanos, Cache<String, AtomicLong> buckets, Counter throttled) {
+    }
+}
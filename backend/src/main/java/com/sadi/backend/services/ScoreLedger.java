@@ -0,0 +1,178 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.dtos.responses.ScoreEventResponse;
+import com.sadi.backend.dtos.responses.UserStanding;
+import com.sadi.backend.enums.ScoreEventType;
+import com.sadi.backend.repositories.ScoreEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only ledger of score and credit changes. Scoring actions only insert a {@code score_events} row
+ * in their own transaction; a scheduled aggregator folds unaggregated rows into {@code users.score} and
+ * {@code users.credit} with one relative update per user and batch, so awards to an active user never
+ * queue up on a read-modify-write of their row. The totals can always be recomputed from the ledger.
+ * <p>
+ * Aggregation and rebuilds take a transaction-scoped advisory lock, so only one instance folds events
+ * at a time.
+ */
+@Slf4j
+@Service
+public class ScoreLedger {
+    private static final long AGGREGATION_LOCK = 0x5C0_12E5L;
+    private static final String INSERT_SQL = """
+            INSERT INTO score_events (user_id, type, score_delta, credit_delta, source_id) VALUES (?, ?, ?, ?, ?)
+            """;
+    private static final String UPVOTES_SQL = """
+            INSERT INTO score_events (user_id, type, score_delta, credit_delta, source_id)
+            SELECT user_id, ?, ?, ?, id FROM contents WHERE id = ?
+            """;
+    private static final String AGGREGATE_SQL = """
+            WITH batch AS (
+                SELECT id FROM score_events WHERE NOT aggregated ORDER BY id LIMIT ?
+            ),
+            marked AS (
+                UPDATE score_events e SET aggregated = TRUE
+                FROM batch b
+                WHERE e.id = b.id
+                RETURNING e.user_id, e.score_delta, e.credit_delta
+            ),
+            sums AS (
+                SELECT user_id, sum(score_delta) AS score, sum(credit_delta) AS credit
+                FROM marked
+                GROUP BY user_id
+            )
+            UPDATE users u SET score = u.score + s.score, credit = u.credit + s.credit
+            FROM sums s
+            WHERE u.id = s.user_id
+            RETURNING u.id, u.full_name, u.profile_picture, u.score, u.credit
+            """;
+    // one statement, so the events marked and the events summed come from the same snapshot; an event
+    // committed meanwhile stays unaggregated and out of the totals
+    private static final String REBUILD_SQL = """
+            WITH marked AS (
+                UPDATE score_events SET aggregated = TRUE WHERE NOT aggregated
+            )
+            UPDATE users u SET score = t.score, credit = t.credit
+            FROM (
+                SELECT u2.id, coalesce(sum(e.score_delta), 0) AS score, coalesce(sum(e.credit_delta), 0) AS credit
+                FROM users u2
+                LEFT JOIN score_events e ON e.user_id = u2.id
+                GROUP BY u2.id
+            ) t
+            WHERE u.id = t.id AND (u.score <> t.score OR u.credit <> t.credit)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScoreEventRepository scoreEventRepository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final UserProfileCache userProfileCache;
+    private final int batchSize;
+    private final Timer aggregateTimer;
+    private final Counter aggregatedUsers;
+
+    public ScoreLedger(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ScoreEventRepository scoreEventRepository,
+            LeaderboardIndex leaderboardIndex,
+            UserProfileCache userProfileCache,
+            MeterRegistry meterRegistry,
+            @Value("${scores.aggregate-batch-size:5000}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scoreEventRepository = scoreEventRepository;
+        this.leaderboardIndex = leaderboardIndex;
+        this.userProfileCache = userProfileCache;
+        this.batchSize = batchSize;
+        this.aggregateTimer = Timer.builder("scores.aggregate")
+                .description("Time taken to fold a batch of score events into user totals")
+                .register(meterRegistry);
+        this.aggregatedUsers = Counter.builder("scores.aggregate.users")
+                .description("User totals updated by the aggregator")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records {@code units} of the event for the user. Joins the caller's transaction when there is one.
+     */
+    public void record(String userId, ScoreEventType type, long units, UUID sourceId) {
+        jdbcTemplate.update(INSERT_SQL, userId, type.name(), units * type.getScore(), units * type.getCredit(),
+                sourceId);
+    }
+
+    /**
+     * Records the net upvotes each content received, crediting its author.
+     */
+    public void recordUpvotes(Map<UUID, Integer> deltas) {
+        ScoreEventType type = ScoreEventType.UPVOTES_RECEIVED;
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        deltas.forEach((contentId, delta) -> batch.add(
+                new Object[]{type.name(), delta * type.getScore(), delta * type.getCredit(), contentId}));
+        jdbcTemplate.batchUpdate(UPVOTES_SQL, batch);
+    }
+
+    @Scheduled(fixedDelayString = "${scores.aggregate-interval-ms:1000}")
+    public void aggregate() {
+        try {
+            aggregateTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                if (!tryLock()) {
+                    return;
+                }
+                List<UserStanding> standings = jdbcTemplate.query(AGGREGATE_SQL, (rs, i) -> {
+                    userProfileCache.updateTotals(rs.getString("id"), rs.getLong("score"), rs.getLong("credit"));
+                    return new UserStanding(rs.getString("id"), rs.getString("full_name"),
+                            rs.getString("profile_picture"), rs.getLong("score"));
+                }, batchSize);
+                // applied once the new totals are committed
+                standings.forEach(leaderboardIndex::update);
+                aggregatedUsers.increment(standings.size());
+            }));
+        } catch (DataAccessException e) {
+            log.error("Failed to aggregate score events, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Recomputes every user's score and credit from the whole ledger and reloads the rank index.
+     *
+     * @return the number of users whose totals had drifted from the ledger
+     */
+    public int rebuild() {
+        Integer corrected = transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(?)", Object.class, AGGREGATION_LOCK);
+            return jdbcTemplate.update(REBUILD_SQL);
+        });
+        userProfileCache.invalidateAll();
+        log.info("Rebuilt user totals from the score ledger, {} users corrected", corrected);
+        leaderboardIndex.load();
+        return corrected == null ? 0 : corrected;
+    }
+
+    public Page<ScoreEventResponse> getHistory(String userId, Pageable pageable) {
+        return scoreEventRepository.findHistory(userId, pageable);
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, AGGREGATION_LOCK));
+    }
+}
@@ -0,0 +1,68 @@
+package com.sadi.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadi.backend.enums.CountPolicy;
+import com.sadi.backend.utils.FilterKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Resolves the total row count of a listing page according to the requested {@link CountPolicy}.
+ * {@link CountPolicy#NONE} never reaches here: those requests are answered as a slice.
+ */
+@Service
+public class TotalCountService {
+    private final Cache<String, Long> counts;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TotalCountService(
+            @Value("${count.cache.ttl:30s}") Duration ttl,
+            @Value("${count.cache.maximum-size:10000}") long maximumSize,
+            MeterRegistry meterRegistry
+    ) {
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, counts, "filterCounts");
+    }
+
+    public long count(CountPolicy policy, FilterKey filterKey, LongSupplier exactCount) {
+        return switch (policy) {
+            case EXACT, NONE -> exactCount.getAsLong();
+            case CACHED -> cachedCount(filterKey, exactCount);
+            case ESTIMATED -> filterKey.isFiltered()
+                    // the planner's guess for '%x%' LIKE filters is a fixed selectivity, so a cached
+                    // exact count is both cheaper on repeat and far closer to the truth
+                    ? cachedCount(filterKey, exactCount)
+                    : estimatedTableRows(filterKey, exactCount);
+        };
+    }
+
+    private long cachedCount(FilterKey filterKey, LongSupplier exactCount) {
+        return counts.get(filterKey.cacheKey(), key -> exactCount.getAsLong());
+    }
+
+    private long estimatedTableRows(FilterKey filterKey, LongSupplier exactCount) {
+        Number estimate = (Number) entityManager.createNativeQuery(
+                        "select cast(reltuples as bigint) from pg_class where oid = to_regclass(:table)")
+                .setParameter("table", filterKey.getTable())
+                .getResultList().stream().findFirst().orElse(-1L);
+        // reltuples is -1 until the table has been vacuumed or analyzed for the first time
+        if (estimate.longValue() < 0) {
+            return cachedCount(filterKey, exactCount);
+        }
+        return estimate.longValue();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sadi.backend.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sadi.backend.dtos.responses.UserProfile;
+import com.sadi.backend.utils.AfterCommit;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of user profiles keyed by user id. Profile edits drop the entry and the score
+ * aggregator writes its new totals into entries that are present, both once their transaction commits.
+ * Entries also serve as a cheap existence check for users that are only needed as a foreign key.
+ */
+@Service
+public class UserProfileCache {
+    private final Cache<String, UserProfile> profiles;
+
+    public UserProfileCache(
+            @Value("${users.profile-cache.maximum-size:50000}") long maximumSize,
+            @Value("${users.profile-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry
+    ) {
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "userProfiles");
+    }
+
+    public UserProfile get(String id, Function<String, UserProfile> loader) {
+        return profiles.get(id, loader);
+    }
+
+    public void updateTotals(String id, long score, long credit) {
+        AfterCommit.run(() -> profiles.asMap().computeIfPresent(id, (key, profile) -> profile.withTotals(score, credit)));
+    }
+
+    public void invalidate(String id) {
+        AfterCommit.run(() -> profiles.invalidate(id));
+    }
+
+    public void invalidateAll() {
+        AfterCommit.run(profiles::invalidateAll);
+    }
+}
@@ -3,26 +3,53 @@ package com.sadi.backend.services;
 import com.sadi.backend.dtos.requests.UserInfoUpdateReq;
 import com.sadi.backend.dtos.responses.LeaderboardEntry;
 import com.sadi.backend.dtos.responses.UserLeaderboardDto;
+import com.sadi.backend.dtos.responses.UserProfile;
 import com.sadi.backend.entities.User;
 import com.sadi.backend.enums.Role;
 import com.sadi.backend.repositories.UserRepository;
 import com.sadi.backend.utils.SecurityUtils;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final LeaderboardIndex leaderboardIndex;
+    private final UserProfileCache userProfileCache;
+    private final ContentDetailCache contentDetailCache;
+    private final MeterRegistry meterRegistry;
+    private final Meter.MeterProvider<Timer> rankTimer;
+    private final Meter.MeterProvider<Timer> leaderboardTimer;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository, LeaderboardIndex leaderboardIndex,
+                       UserProfileCache userProfileCache, ContentDetailCache contentDetailCache,
+                       MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
+        this.leaderboardIndex = leaderboardIndex;
+        this.userProfileCache = userProfileCache;
+        this.contentDetailCache = contentDetailCache;
+        this.meterRegistry = meterRegistry;
+        // tagged by whether the rank index answered or the query fell through to the users table
+        this.rankTimer = Timer.builder("users.rank")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
+        this.leaderboardTimer = Timer.builder("users.leaderboard")
+                .publishPercentileHistogram()
+                .withRegistry(meterRegistry);
     }
 
     public boolean userExists(String uuid) {
@@ -35,6 +62,24 @@ public class UserService {
         );
     }
 
+    @Transactional(readOnly = true)
+    public UserProfile getProfile(String id) {
+        UserProfile profile = userProfileCache.get(id, key -> userRepository.findProfile(key).orElse(null));
+        if (profile == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return profile;
+    }
+
+    /**
+     * Reference to an existing user for use as an association. Existence is checked against the profile
+     * cache, so an active user costs no query at all.
+     */
+    public User getUserReference(String id) {
+        getProfile(id);
+        return userRepository.getReferenceById(id);
+    }
+
     public void saveUser(Role role) {
         Jwt jwt = (Jwt) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
         User user = new User(
@@ -44,6 +89,7 @@ public class UserService {
                 role
         );
         userRepository.save(user);
+        leaderboardIndex.update(user);
     }
 
     public void updateUserInfo(UserInfoUpdateReq req) {
@@ -55,6 +101,9 @@ public class UserService {
         if(!Objects.isNull(req.profilePicture()) && !req.profilePicture().isEmpty())
             user.setProfilePicture(req.profilePicture());
         userRepository.save(user);
+        leaderboardIndex.updateProfile(userId, user.getFullName(), user.getProfilePicture());
+        userProfileCache.invalidate(userId);
+        contentDetailCache.invalidateAuthor(userId);
     }
 
     public String extractFullName(String email) {
@@ -65,11 +114,30 @@ public class UserService {
         return email.substring(0, email.indexOf('@'));
     }
 
+    @Transactional(readOnly = true)
     public Long getRank(String userId, Long score) {
-        return userRepository.getUserRank(score);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        OptionalLong indexed = leaderboardIndex.rankOf(userId);
+        long rank = indexed.orElseGet(() -> userRepository.getUserRank(score) + 1);
+        sample.stop(rankTimer.withTag("source", indexed.isPresent() ? "index" : "database"));
+        return rank;
     }
 
+    @Transactional(readOnly = true)
     public Page<UserLeaderboardDto> getLeaderboard(Pageable pageable) {
-        return userRepository.findUsersLeaderboard(pageable);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Optional<Page<UserLeaderboardDto>> indexed = leaderboardIndex.page(pageable);
+        Page<UserLeaderboardDto> page = indexed.orElseGet(() -> userRepository.findUsersLeaderboard(pageable));
+        sample.stop(leaderboardTimer.withTag("source", indexed.isPresent() ? "index" : "database"));
+        return page;
+    }
+
+    public List<UserLeaderboardDto> getLeaderboardAround(String userId, int radius) {
+        if (!userExists(userId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "User not found");
+        }
+        return leaderboardIndex.around(userId, radius).orElseThrow(
+                () -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Leaderboard is not available yet")
+        );
     }
 }
@@ -0,0 +1,226 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.utils.AfterCommit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Collects upvote count deltas in memory and writes them to {@code contents.upvote_count} in batches,
+ * so concurrent votes on a hot post never contend on its row. Deltas are spread over lock-striped maps
+ * keyed by content id; a flush swaps every stripe out and applies the sums with relative updates.
+ * Swapped out deltas stay visible through {@link #pending} until the flush commits, and go back to their
+ * stripes with their original age when it fails.
+ */
+@Slf4j
+@Service
+public class VoteCountAccumulator {
+    private static final String FLUSH_SQL = "UPDATE contents SET upvote_count = upvote_count + ? WHERE id = ?";
+
+    private final Stripe[] stripes;
+    // deltas of the running flush; an entry moves here and back under the lock of its stripe
+    private final Map<UUID, Integer> inFlight = new ConcurrentHashMap<>();
+    private volatile long inFlightSinceNanos;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScoreLedger scoreLedger;
+    private final Timer flushTimer;
+    private final Counter flushFailures;
+
+    public VoteCountAccumulator(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            ScoreLedger scoreLedger,
+            @Value("${votes.stripes:64}") int stripeCount
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scoreLedger = scoreLedger;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.flushTimer = Timer.builder("votes.flush")
+                .description("Time taken to write accumulated upvote deltas")
+                .register(meterRegistry);
+        this.flushFailures = Counter.builder("votes.flush.failures")
+                .register(meterRegistry);
+        Gauge.builder("votes.pending", this, VoteCountAccumulator::pendingContents)
+                .description("Contents with an unflushed upvote delta")
+                .register(meterRegistry);
+        Gauge.builder("votes.flush.lag", this, VoteCountAccumulator::lagSeconds)
+                .description("Age in seconds of the oldest unflushed upvote delta")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records a delta for the content. Inside a transaction the delta only becomes pending once the
+     * transaction commits, so a rolled back vote never reaches the counter.
+     */
+    public void record(UUID contentId, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        AfterCommit.run(() -> add(contentId, delta));
+    }
+
+    public int pending(UUID contentId) {
+        Stripe stripe = stripeFor(contentId);
+        stripe.lock.lock();
+        try {
+            return stripe.deltas.getOrDefault(contentId, 0) + inFlight.getOrDefault(contentId, 0);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${votes.flush-interval-ms:500}")
+    public synchronized void flush() {
+        Map<UUID, Integer> pending = drain();
+        if (pending.isEmpty()) {
+            return;
+        }
+        // a stable order keeps concurrent flushers from different instances from deadlocking
+        List<Object[]> batch = new ArrayList<>(pending.size());
+        pending.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(e -> batch.add(new Object[]{e.getValue(), e.getKey()}));
+        try {
+            flushTimer.record(() -> transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                // authors are credited in the same transaction, so counts and scores never disagree
+                scoreLedger.recordUpvotes(pending);
+            }));
+        } catch (RuntimeException e) {
+            // anything from failing to open the transaction to a failed commit leaves nothing written
+            log.error("Failed to flush {} upvote deltas, keeping them for the next run: {}", batch.size(), e.getMessage());
+            flushFailures.increment();
+            requeue(pending, inFlightSinceNanos);
+            return;
+        }
+        inFlight.clear();
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        log.info("Flushing {} pending upvote deltas before shutdown", (long) pendingContents());
+        flush();
+    }
+
+    private void add(UUID contentId, int delta) {
+        Stripe stripe = stripeFor(contentId);
+        stripe.lock.lock();
+        try {
+            if (stripe.deltas.isEmpty()) {
+                stripe.oldestPendingNanos = System.nanoTime();
+            }
+            stripe.deltas.merge(contentId, delta, Integer::sum);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Puts the deltas of a failed flush back, keeping the older of their age and the stripe's own so
+     * that the lag keeps growing for as long as flushes fail.
+     */
+    private void requeue(Map<UUID, Integer> deltas, long oldestNanos) {
+        deltas.forEach((contentId, delta) -> {
+            Stripe stripe = stripeFor(contentId);
+            stripe.lock.lock();
+            try {
+                if (stripe.deltas.isEmpty() || oldestNanos - stripe.oldestPendingNanos < 0) {
+                    stripe.oldestPendingNanos = oldestNanos;
+                }
+                stripe.deltas.merge(contentId, delta, Integer::sum);
+                inFlight.remove(contentId);
+            } finally {
+                stripe.lock.unlock();
+            }
+        });
+    }
+
+    private Map<UUID, Integer> drain() {
+        Map<UUID, Integer> pending = new HashMap<>();
+        inFlightSinceNanos = System.nanoTime();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (stripe.deltas.isEmpty()) {
+                    continue;
+                }
+                if (stripe.oldestPendingNanos - inFlightSinceNanos < 0) {
+                    inFlightSinceNanos = stripe.oldestPendingNanos;
+                }
+                stripe.deltas.forEach((id, delta) -> {
+                    if (delta != 0) {
+                        pending.put(id, delta);
+                        inFlight.put(id, delta);
+                    }
+                });
+                stripe.deltas = new HashMap<>();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return pending;
+    }
+
+    private double pendingContents() {
+        long total = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                total += stripe.deltas.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return total;
+    }
+
+    private double lagSeconds() {
+        long now = System.nanoTime();
+        long oldest = inFlight.isEmpty() ? now : inFlightSinceNanos;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                if (!stripe.deltas.isEmpty() && stripe.oldestPendingNanos - oldest < 0) {
+                    oldest = stripe.oldestPendingNanos;
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return (now - oldest) / 1e9;
+    }
+
+    private Stripe stripeFor(UUID contentId) {
+        return stripes[Math.floorMod(contentId.hashCode(), stripes.length)];
+    }
+
+    private static final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Map<UUID, Integer> deltas = new HashMap<>();
+        private long oldestPendingNanos;
+    }
+}
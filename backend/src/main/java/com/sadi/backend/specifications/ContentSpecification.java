@@ -1,16 +1,19 @@
 package com.sadi.backend.specifications;
 
 import com.sadi.backend.entities.Content;
+import jakarta.persistence.criteria.Path;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.util.Locale;
+import java.util.UUID;
 
 public class ContentSpecification {
     public static Specification<Content> withTitle(String title) {
         return (root, query, cb) -> {
             if (title != null && !title.isEmpty()) {
-                return cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase() + "%");
+                return cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase(Locale.ROOT) + "%");
             }
             return null;
         };
@@ -21,6 +24,12 @@ public class ContentSpecification {
             if (startDate != null && endDate != null) {
                 return cb.between(root.get("createdAt"), startDate, endDate);
             }
+            if (startDate != null) {
+                return cb.greaterThanOrEqualTo(root.get("createdAt"), startDate);
+            }
+            if (endDate != null) {
+                return cb.lessThanOrEqualTo(root.get("createdAt"), endDate);
+            }
             return null;
         };
     }
@@ -46,7 +55,7 @@ public class ContentSpecification {
     public static Specification<Content> withAuthorName(String authorName) {
         return (root, query, cb) -> {
             if (authorName != null && !authorName.isEmpty()) {
-                return cb.like(cb.lower(root.get("user").get("fullName")), "%" + authorName.toLowerCase() + "%");
+                return cb.like(cb.lower(root.get("user").get("fullName")), "%" + authorName.toLowerCase(Locale.ROOT) + "%");
             }
             return null;
         };
@@ -71,4 +80,46 @@ public class ContentSpecification {
             return null; // sorting doesn't affect the where clause
         };
     }
+
+    public static Specification<Content> sortByHotness(Sort.Direction direction) {
+        return (root, query, cb) -> {
+            assert query != null;
+            query.orderBy(direction == Sort.Direction.ASC ?
+                    cb.asc(root.get("hotScore")) :
+                    cb.desc(root.get("hotScore")));
+            return null; // sorting doesn't affect the where clause
+        };
+    }
+
+    /**
+     * Orders by {@code (attribute, id)} and, when a cursor key is given, only keeps rows strictly after
+     * {@code (key, lastId)} in that order. The leading {@code attribute <= key} (or {@code >=}) bound lets
+     * Postgres start the index range scan at the cursor instead of walking every earlier row.
+     */
+    public static <Y extends Comparable<? super Y>> Specification<Content> seekAfter(
+            String attribute, Sort.Direction direction, Y key, UUID lastId) {
+        return (root, query, cb) -> {
+            assert query != null;
+            Path<Y> sortPath = root.get(attribute);
+            Path<UUID> idPath = root.get("id");
+            if (direction == Sort.Direction.ASC) {
+                query.orderBy(cb.asc(sortPath), cb.asc(idPath));
+            } else {
+                query.orderBy(cb.desc(sortPath), cb.desc(idPath));
+            }
+            if (key == null || lastId == null) {
+                return null;
+            }
+            if (direction == Sort.Direction.ASC) {
+                return cb.and(
+                        cb.greaterThanOrEqualTo(sortPath, key),
+                        cb.or(cb.greaterThan(sortPath, key), cb.greaterThan(idPath, lastId))
+                );
+            }
+            return cb.and(
+                    cb.lessThanOrEqualTo(sortPath, key),
+                    cb.or(cb.lessThan(sortPath, key), cb.lessThan(idPath, lastId))
+            );
+        };
+    }
 }
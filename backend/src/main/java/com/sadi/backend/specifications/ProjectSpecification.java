@@ -6,12 +6,13 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
+import java.util.Locale;
 
 public class ProjectSpecification {
     public static Specification<Project> withTitle(String title) {
         return (root, query, cb) -> {
             if (title != null && !title.isEmpty()) {
-                return cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase() + "%");
+                return cb.like(cb.lower(root.get("title")), "%" + title.toLowerCase(Locale.ROOT) + "%");
             }
             return null;
         };
@@ -22,6 +23,12 @@ public class ProjectSpecification {
             if (startDate != null && endDate != null) {
                 return cb.between(root.get("createdAt"), startDate, endDate);
             }
+            if (startDate != null) {
+                return cb.greaterThanOrEqualTo(root.get("createdAt"), startDate);
+            }
+            if (endDate != null) {
+                return cb.lessThanOrEqualTo(root.get("createdAt"), endDate);
+            }
             return null;
         };
     }
@@ -48,7 +55,7 @@ public class ProjectSpecification {
     public static Specification<Project> withAuthorName(String authorName) {
         return (root, query, cb) -> {
             if (authorName != null && !authorName.isEmpty()) {
-                return cb.like(cb.lower(root.get("user").get("fullName")), "%" + authorName.toLowerCase() + "%");
+                return cb.like(cb.lower(root.get("user").get("fullName")), "%" + authorName.toLowerCase(Locale.ROOT) + "%");
             }
             return null;
         };
@@ -0,0 +1,29 @@
+package com.sadi.backend.utils;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers changes to in-memory state until the database change behind them is committed, so caches,
+ * indexes and counters never see a write that is later rolled back.
+ */
+public final class AfterCommit {
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action once the current transaction commits, or right away outside of one.
+     */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.sadi.backend.utils;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset position handed to clients in place of a page offset. It remembers the sort it was
+ * issued for, so a cursor can't be replayed against a different ordering.
+ */
+public record FeedCursor(String sortType, Sort.Direction direction, String key, UUID id) {
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = String.join(SEPARATOR, sortType, direction.name(), key, id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static FeedCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new FeedCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[2], UUID.fromString(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    public void requireSort(String sortType, Sort.Direction direction) {
+        if (!this.sortType.equals(sortType) || this.direction != direction) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor was issued for a different sort order");
+        }
+    }
+}
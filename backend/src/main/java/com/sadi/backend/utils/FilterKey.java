@@ -0,0 +1,65 @@
+package com.sadi.backend.utils;
+
+import java.util.Locale;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Normalized description of the filters applied to a listing query. Two requests that can only ever
+ * match the same rows produce the same {@link #cacheKey()}, whatever the page or sort they ask for.
+ */
+public class FilterKey {
+    private final String table;
+    private final SortedMap<String, String> filters = new TreeMap<>();
+
+    private FilterKey(String table) {
+        this.table = table;
+    }
+
+    public static FilterKey of(String table) {
+        return new FilterKey(table);
+    }
+
+    /**
+     * Trimmed value, or null when the value is blank and the filter should not be applied.
+     */
+    public static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    /**
+     * For filters that are matched case-insensitively, such as the title and author name LIKE filters.
+     */
+    public static String normalizeIgnoringCase(String value) {
+        String normalized = normalize(value);
+        return normalized == null ? null : normalized.toLowerCase(Locale.ROOT);
+    }
+
+    public FilterKey with(String name, Object value) {
+        String normalized = value == null ? null : normalize(value.toString());
+        if (normalized != null) {
+            filters.put(name, normalized);
+        }
+        return this;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public boolean isFiltered() {
+        return !filters.isEmpty();
+    }
+
+    /**
+     * Names of the applied filters without their values, e.g. {@code authorId+topicId}, for use as a
+     * low-cardinality metric tag.
+     */
+    public String combination() {
+        return filters.isEmpty() ? "none" : String.join("+", filters.keySet());
+    }
+
+    public String cacheKey() {
+        return table + filters;
+    }
+}
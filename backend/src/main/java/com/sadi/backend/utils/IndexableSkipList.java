@@ -0,0 +1,173 @@
+package com.sadi.backend.utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set backed by a skip list whose links carry their width, so positional lookups and rank
+ * queries are O(log n) alongside insert and remove. Not thread-safe; callers guard it themselves.
+ */
+public class IndexableSkipList<T> {
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super T> comparator;
+    private final Node<T> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    public IndexableSkipList(Comparator<? super T> comparator) {
+        this.comparator = comparator;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean add(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        if (x.next[0] != null && comparator.compare(x.next[0].value, value) == 0) {
+            return false;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+        Node<T> node = new Node<>(value, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+        return true;
+    }
+
+    public boolean remove(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        x = x.next[0];
+        if (x == null || comparator.compare(x.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Number of elements ordered strictly before {@code value}, whether or not it is present.
+     */
+    public int rank(T value) {
+        int rank = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].value, value) < 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    public T get(int index) {
+        Node<T> node = nodeAt(index);
+        if (node == null) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return node.value;
+    }
+
+    /**
+     * Up to {@code count} elements starting at position {@code from}.
+     */
+    public List<T> range(int from, int count) {
+        List<T> values = new ArrayList<>(Math.max(0, Math.min(count, size - from)));
+        Node<T> x = nodeAt(from);
+        while (x != null && values.size() < count) {
+            values.add(x.value);
+            x = x.next[0];
+        }
+        return values;
+    }
+
+    private Node<T> nodeAt(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int target = index + 1;
+        int traversed = 0;
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= target) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+            if (traversed == target) {
+                return x;
+            }
+        }
+        return null;
+    }
+
+    private static int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node<T> {
+        private final T value;
+        private final Node<T>[] next;
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(T value, int level) {
+            this.value = value;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.sadi.backend.utils;
+
+import java.util.Arrays;
+import java.util.StringJoiner;
+
+/**
+ * Strong ETags derived from an entity's {@code @Version}. The version always comes first, optionally
+ * followed by qualifiers for per-reader state or joined data, e.g. {@code "3-120-1"}; {@code If-Match}
+ * only compares the version.
+ */
+public final class VersionTag {
+    private VersionTag() {
+    }
+
+    public static String format(long version, Object... qualifiers) {
+        StringJoiner tag = new StringJoiner("-", "\"", "\"");
+        tag.add(Long.toString(version));
+        for (Object qualifier : qualifiers) {
+            tag.add(String.valueOf(qualifier));
+        }
+        return tag.toString();
+    }
+
+    /**
+     * Short hash of values that have no version of their own, such as the author's name and picture.
+     */
+    public static String fingerprint(Object... values) {
+        return Integer.toHexString(Arrays.hashCode(values));
+    }
+
+    /**
+     * Whether an {@code If-Match} header admits the current version. A missing header or {@code *}
+     * admits any version; a tag that can't be parsed admits none.
+     */
+    public static boolean matches(String ifMatch, long currentVersion) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return true;
+        }
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                // If-Match uses strong comparison, a weak tag never matches
+                continue;
+            }
+            tag = tag.replace("\"", "");
+            int end = tag.indexOf('-');
+            try {
+                if (Long.parseLong(end < 0 ? tag : tag.substring(0, end)) == currentVersion) {
+                    return true;
+                }
+            } catch (NumberFormatException ignored) {
+                // not one of our tags
+            }
+        }
+        return false;
+    }
+}
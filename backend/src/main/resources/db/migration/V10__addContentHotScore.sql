@@ -0,0 +1,20 @@
+-- Hotness on an absolute scale: an order of magnitude more votes is worth 45000 seconds (12.5 hours)
+-- of recency. A post's score only changes with its votes, while newer posts keep starting higher, so
+-- posts age relative to each other without any row ever needing a periodic rewrite.
+CREATE FUNCTION content_hot_score(votes INTEGER, created_at TIMESTAMP WITHOUT TIME ZONE)
+    RETURNS DOUBLE PRECISION
+    LANGUAGE sql
+    IMMUTABLE
+    PARALLEL SAFE
+AS
+$$
+SELECT log(greatest(votes, 1)::double precision)
+           + (extract(EPOCH FROM created_at)::double precision - 1704067200) / 45000
+$$;
+
+-- kept current by Postgres on every insert and every upvote flush
+ALTER TABLE contents
+    ADD hot_score DOUBLE PRECISION GENERATED ALWAYS AS (content_hot_score(upvote_count, created_at)) STORED;
+
+CREATE INDEX idx_contents_hot_score_id ON contents (hot_score, id);
+CREATE INDEX idx_contents_topic_hot_score_id ON contents (topic_id, hot_score, id);
@@ -0,0 +1,12 @@
+DELETE
+FROM content_votes a
+    USING content_votes b
+WHERE a.content_id = b.content_id
+  AND a.user_id = b.user_id
+  AND a.id > b.id;
+
+ALTER TABLE content_votes
+    ADD CONSTRAINT uc_content_votes_content_user UNIQUE (content_id, user_id);
+
+UPDATE contents c
+SET upvote_count = (SELECT count(*) FROM content_votes v WHERE v.content_id = c.id);
@@ -0,0 +1,23 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- content feed: sort keys double as keyset seek keys, topic and author filters keep their order
+CREATE INDEX idx_contents_upvote_count_id ON contents (upvote_count, id);
+CREATE INDEX idx_contents_created_at_id ON contents (created_at, id);
+CREATE INDEX idx_contents_topic_upvote_count_id ON contents (topic_id, upvote_count, id);
+CREATE INDEX idx_contents_topic_created_at_id ON contents (topic_id, created_at, id);
+CREATE INDEX idx_contents_user_created_at ON contents (user_id, created_at);
+CREATE INDEX idx_contents_title_trgm ON contents USING gin (lower(title) gin_trgm_ops);
+
+-- (content_id, user_id) is already covered by uc_content_votes_content_user
+CREATE INDEX idx_content_votes_user ON content_votes (user_id);
+
+CREATE INDEX idx_projects_priority_id ON projects (priority, id);
+CREATE INDEX idx_projects_created_at_id ON projects (created_at, id);
+CREATE INDEX idx_projects_user ON projects (user_id);
+CREATE INDEX idx_projects_title_trgm ON projects USING gin (lower(title) gin_trgm_ops);
+
+CREATE INDEX idx_project_responses_project_verified_created ON project_responses (project_id, is_varified, created_at);
+CREATE INDEX idx_project_responses_user ON project_responses (user_id);
+
+CREATE INDEX idx_users_score_id ON users (score DESC, id);
+CREATE INDEX idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops);
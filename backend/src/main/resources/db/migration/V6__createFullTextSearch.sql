@@ -0,0 +1,22 @@
+-- English words are stemmed; anything else (Bengali script, numbers) is indexed as a lower-cased token
+CREATE TEXT SEARCH CONFIGURATION bn_en (COPY = simple);
+
+ALTER TEXT SEARCH CONFIGURATION bn_en
+    ALTER MAPPING FOR asciiword, asciihword, hword_asciipart WITH english_stem;
+
+ALTER TABLE contents
+    ADD search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('bn_en', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('bn_en', coalesce(summary, '')), 'B') ||
+        setweight(to_tsvector('bn_en', coalesce(body, '')), 'C')
+        ) STORED;
+
+ALTER TABLE projects
+    ADD search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('bn_en', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('bn_en', coalesce(body, '')), 'C')
+        ) STORED;
+
+CREATE INDEX idx_contents_search_vector ON contents USING gin (search_vector);
+
+CREATE INDEX idx_projects_search_vector ON projects USING gin (search_vector);
@@ -0,0 +1,5 @@
+ALTER TABLE contents
+    ADD version BIGINT NOT NULL DEFAULT 0;
+
+ALTER TABLE projects
+    ADD version BIGINT NOT NULL DEFAULT 0;
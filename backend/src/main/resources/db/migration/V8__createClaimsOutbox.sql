@@ -0,0 +1,16 @@
+CREATE TABLE claims_outbox
+(
+    id              BIGSERIAL                   NOT NULL,
+    user_id         VARCHAR(255)                NOT NULL,
+    role            VARCHAR(255)                NOT NULL,
+    status          VARCHAR(16)                 NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER                     NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    last_error      TEXT,
+    created_at      TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT pk_claims_outbox PRIMARY KEY (id)
+);
+
+-- delivered rows are deleted, so the pending part stays small
+CREATE INDEX idx_claims_outbox_due ON claims_outbox (next_attempt_at, id) WHERE status = 'PENDING';
+CREATE INDEX idx_claims_outbox_user ON claims_outbox (user_id, id) WHERE status = 'PENDING';
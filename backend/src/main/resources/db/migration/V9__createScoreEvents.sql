@@ -0,0 +1,22 @@
+CREATE TABLE score_events
+(
+    id           BIGSERIAL                   NOT NULL,
+    user_id      VARCHAR(255)                NOT NULL,
+    type         VARCHAR(32)                 NOT NULL,
+    score_delta  BIGINT                      NOT NULL,
+    credit_delta BIGINT                      NOT NULL,
+    source_id    UUID,
+    aggregated   BOOLEAN                     NOT NULL DEFAULT FALSE,
+    created_at   TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT now(),
+    CONSTRAINT pk_score_events PRIMARY KEY (id),
+    CONSTRAINT fk_score_events_on_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_score_events_user_history ON score_events (user_id, created_at DESC, id DESC);
+CREATE INDEX idx_score_events_unaggregated ON score_events (id) WHERE NOT aggregated;
+
+-- totals that predate the ledger, so users.score and users.credit stay rebuildable from it
+INSERT INTO score_events (user_id, type, score_delta, credit_delta, aggregated, created_at)
+SELECT id, 'OPENING_BALANCE', score, credit, TRUE, now()
+FROM users
+WHERE score <> 0 OR credit <> 0;
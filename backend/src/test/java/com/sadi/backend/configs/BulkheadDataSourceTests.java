@@ -0,0 +1,50 @@
+package com.sadi.backend.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BulkheadDataSourceTests {
+
+    @Test
+    void permitIsHeldUntilTheConnectionIsClosed() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, "test", 1, Duration.ofMillis(50), registry);
+
+        Connection first = bulkhead.getConnection();
+        assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(registry.get("db.bulkhead.rejected").counter().count()).isEqualTo(1);
+
+        first.close();
+        // closing twice must not hand out a second permit
+        first.close();
+        bulkhead.getConnection();
+        assertThatThrownBy(bulkhead::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+        verify(connection, times(1)).close();
+    }
+
+    @Test
+    void failedBorrowReleasesThePermit() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("pool exhausted"))
+                .thenReturn(mock(Connection.class));
+        BulkheadDataSource bulkhead = new BulkheadDataSource(target, "test", 1, Duration.ofMillis(50), new SimpleMeterRegistry());
+
+        assertThatThrownBy(bulkhead::getConnection).hasMessage("pool exhausted");
+        assertThat(bulkhead.getConnection()).isNotNull();
+    }
+}
@@ -0,0 +1,109 @@
+package com.sadi.backend.configs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTests {
+    private static final String ROUTED = "com.sadi.backend.services.ContentService";
+
+    private final Connection primaryConnection = mock(Connection.class);
+    private final Connection replicaConnection = mock(Connection.class);
+    private final Map<DataSource, Double> lags = new HashMap<>();
+    private ReplicaRoutingDataSource router;
+    private DataSource replica;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource primary = mock(DataSource.class);
+        replica = mock(DataSource.class);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        router = new ReplicaRoutingDataSource(primary, Map.of("replica-1", replica), List.of(ROUTED),
+                Duration.ofSeconds(5), Duration.ofSeconds(10), new SimpleMeterRegistry()) {
+            @Override
+            Double lagOf(DataSource dataSource) {
+                return lags.get(dataSource);
+            }
+        };
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void routedReadOnlyTransactionsGoToACaughtUpReplica() throws Exception {
+        lags.put(replica, 0.5);
+        router.checkLag();
+
+        readOnly(ROUTED + ".filterContents");
+        assertThat(router.getConnection()).isSameAs(replicaConnection);
+
+        readOnly("org.springframework.data.jpa.repository.support.SimpleJpaRepository.findById");
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void laggingOrUncheckedReplicasFallBackToThePrimary() throws Exception {
+        readOnly(ROUTED + ".filterContents");
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+        lags.put(replica, 30.0);
+        router.checkLag();
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+        lags.put(replica, 1.0);
+        router.checkLag();
+        assertThat(router.getConnection()).isSameAs(replicaConnection);
+    }
+
+    @Test
+    void writersReadTheirOwnWritesFromThePrimary() throws Exception {
+        lags.put(replica, 0.0);
+        router.checkLag();
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("writer", null, "SCOPE_USER"));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        commit();
+
+        readOnly(ROUTED + ".getContentState");
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("reader", null, "SCOPE_USER"));
+        assertThat(router.getConnection()).isSameAs(replicaConnection);
+    }
+
+    private static void readOnly(String transactionName) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        TransactionSynchronizationManager.setCurrentTransactionName(transactionName);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clear();
+        synchronizations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.initSynchronization();
+    }
+}
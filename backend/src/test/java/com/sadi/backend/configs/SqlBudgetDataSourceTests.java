@@ -0,0 +1,59 @@
+package com.sadi.backend.configs;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SqlBudgetDataSourceTests {
+
+    @AfterEach
+    void closeUsage() {
+        SqlBudget.close();
+    }
+
+    @Test
+    void countsStatementsAndFetchedRowsOfTheOpenUsage() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true, true, false);
+
+        SqlBudget.Usage usage = SqlBudget.open();
+        try (Connection counted = new SqlBudgetDataSource(target).getConnection()) {
+            for (int i = 0; i < 2; i++) {
+                ResultSet rows = counted.prepareStatement("select 1").executeQuery();
+                while (rows.next()) {
+                    assertThat(rows).isNotNull();
+                }
+            }
+        }
+
+        assertThat(usage.getStatements()).isEqualTo(2);
+        assertThat(usage.getRows()).isEqualTo(2);
+        assertThat(usage.mostRepeated()).hasValueSatisfying(entry -> {
+            assertThat(entry.getKey()).isEqualTo("select 1");
+            assertThat(entry.getValue()).isEqualTo(2);
+        });
+    }
+
+    @Test
+    void connectionsOutsideARequestAreNotWrapped() throws Exception {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        assertThat(new SqlBudgetDataSource(target).getConnection()).isSameAs(connection);
+    }
+}
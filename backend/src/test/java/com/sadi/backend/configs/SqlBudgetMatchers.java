@@ -0,0 +1,51 @@
+package com.sadi.backend.configs;
+
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * MockMvc matchers over the SQL a request issued, as counted by {@link SqlBudgetFilter}:
+ * <pre>
+ * mockMvc.perform(get("/v1/contents")).andExpect(sql().statementsAtMost(2));
+ * </pre>
+ */
+public final class SqlBudgetMatchers {
+
+    private SqlBudgetMatchers() {
+    }
+
+    public static SqlBudgetMatchers sql() {
+        return new SqlBudgetMatchers();
+    }
+
+    public ResultMatcher statementsAtMost(int max) {
+        return result -> {
+            SqlBudget.Usage usage = usage(result);
+            assertThat(usage.getStatements())
+                    .as("SQL statements for %s, most repeated: %s", describe(result), mostRepeated(usage))
+                    .isLessThanOrEqualTo(max);
+        };
+    }
+
+    public ResultMatcher rowsAtMost(long max) {
+        return result -> assertThat(usage(result).getRows())
+                .as("rows fetched for %s", describe(result))
+                .isLessThanOrEqualTo(max);
+    }
+
+    private static SqlBudget.Usage usage(MvcResult result) {
+        Object usage = result.getRequest().getAttribute(SqlBudget.USAGE_ATTRIBUTE);
+        assertThat(usage).as("no SQL usage recorded, is the SqlBudgetFilter registered?").isNotNull();
+        return (SqlBudget.Usage) usage;
+    }
+
+    private static String describe(MvcResult result) {
+        return result.getRequest().getMethod() + " " + result.getRequest().getRequestURI();
+    }
+
+    private static String mostRepeated(SqlBudget.Usage usage) {
+        return usage.mostRepeated().map(e -> e.getValue() + "x " + e.getKey()).orElse("none");
+    }
+}
@@ -0,0 +1,113 @@
+package com.sadi.backend.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the single statement behind bulk verification against Postgres: the status of every requested id,
+ * the request order, repeated ids and the score events written for changed responses.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("local-auth")
+@Testcontainers(disabledWithoutDocker = true)
+class BulkVerificationTests {
+    private static final String OWN_PROJECT_ID = "00000000-0000-0000-0000-00000000b101";
+    private static final String OTHER_PROJECT_ID = "00000000-0000-0000-0000-00000000b102";
+    private static final String UNVERIFIED_ID = "00000000-0000-0000-0000-00000000a101";
+    private static final String VERIFIED_ID = "00000000-0000-0000-0000-00000000a102";
+    private static final String OTHERS_ID = "00000000-0000-0000-0000-00000000a103";
+    private static final String MISSING_ID = "00000000-0000-0000-0000-00000000a1ff";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("cors.origins", () -> "http://localhost");
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("""
+                INSERT INTO users (id, email, full_name, role, profile_picture, credit, score, created_at)
+                VALUES ('owner', 'owner@example.com', 'Owner', 'ADMIN', NULL, 0, 0, now()),
+                       ('other', 'other@example.com', 'Other', 'ADMIN', NULL, 0, 0, now()),
+                       ('reader', 'reader@example.com', 'Reader', 'USER', NULL, 0, 0, now())
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO projects (id, user_id, title, body, type, priority, created_at)
+                VALUES (CAST(? AS uuid), 'owner', 'own', 'body', 'FREE', 0, now()),
+                       (CAST(? AS uuid), 'other', 'other', 'body', 'FREE', 0, now())
+                ON CONFLICT DO NOTHING
+                """, OWN_PROJECT_ID, OTHER_PROJECT_ID);
+        jdbc.update("""
+                INSERT INTO project_responses (id, user_id, bkash, project_id, body, is_varified, created_at)
+                VALUES (CAST(? AS uuid), 'reader', NULL, CAST(? AS uuid), 'response', false, now()),
+                       (CAST(? AS uuid), 'reader', NULL, CAST(? AS uuid), 'response', true, now()),
+                       (CAST(? AS uuid), 'reader', NULL, CAST(? AS uuid), 'response', false, now())
+                ON CONFLICT (id) DO UPDATE SET is_varified = excluded.is_varified
+                """, UNVERIFIED_ID, OWN_PROJECT_ID, VERIFIED_ID, OWN_PROJECT_ID, OTHERS_ID, OTHER_PROJECT_ID);
+        jdbc.update("DELETE FROM score_events WHERE user_id = 'reader'");
+    }
+
+    @Test
+    void everyIdGetsOneStatusInRequestOrder() throws Exception {
+        String body = """
+                {"ids": ["%s", "%s", "%s", "%s", "%s"], "verify": true}
+                """.formatted(UNVERIFIED_ID, MISSING_ID, UNVERIFIED_ID, VERIFIED_ID, OTHERS_ID);
+
+        mockMvc.perform(put("/v1/projects/responses/verification")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body)
+                        .with(jwt().jwt(token -> token.subject("owner"))
+                                .authorities(new SimpleGrantedAuthority("SCOPE_ADMIN"))))
+                .andExpect(status().isOk())
+                // a repeated id is reported once, at its first position
+                .andExpect(jsonPath("$.length()").value(4))
+                .andExpect(jsonPath("$[0].id").value(UNVERIFIED_ID))
+                .andExpect(jsonPath("$[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$[1].id").value(MISSING_ID))
+                .andExpect(jsonPath("$[1].status").value("NOT_FOUND"))
+                .andExpect(jsonPath("$[2].id").value(VERIFIED_ID))
+                .andExpect(jsonPath("$[2].status").value("UNCHANGED"))
+                .andExpect(jsonPath("$[3].id").value(OTHERS_ID))
+                .andExpect(jsonPath("$[3].status").value("FORBIDDEN"));
+
+        assertThat(jdbc.queryForList("SELECT CAST(id AS text) FROM project_responses WHERE is_varified ORDER BY id",
+                String.class)).containsExactly(UNVERIFIED_ID, VERIFIED_ID);
+        assertThat(jdbc.queryForList("SELECT CAST(source_id AS text) FROM score_events WHERE user_id = 'reader'",
+                String.class)).containsExactly(UNVERIFIED_ID);
+        assertThat(jdbc.queryForObject("SELECT type FROM score_events WHERE user_id = 'reader'", String.class))
+                .isEqualTo("RESPONSE_VERIFIED");
+    }
+}
@@ -0,0 +1,131 @@
+package com.sadi.backend.controllers;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import static com.sadi.backend.configs.SqlBudgetMatchers.sql;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements the busiest endpoints issue, so an accidental N+1 or an extra
+ * round trip fails the build instead of showing up in production latency.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("local-auth")
+@Testcontainers(disabledWithoutDocker = true)
+class StatementBudgetTests {
+    private static final String CONTENT_ID = "00000000-0000-0000-0000-00000000c001";
+    private static final String PROJECT_ID = "00000000-0000-0000-0000-00000000b001";
+    private static final String RESPONSE_ID = "00000000-0000-0000-0000-00000000a001";
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("cors.origins", () -> "http://localhost");
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @BeforeEach
+    void seed() {
+        jdbc.update("""
+                INSERT INTO users (id, email, full_name, role, profile_picture, credit, score, created_at)
+                VALUES ('owner', 'owner@example.com', 'Owner', 'ADMIN', NULL, 0, 0, now()),
+                       ('reader', 'reader@example.com', 'Reader', 'USER', NULL, 0, 0, now())
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO content_topics (id, description, created_at) VALUES ('topic', 'Topic', now())
+                ON CONFLICT DO NOTHING
+                """);
+        jdbc.update("""
+                INSERT INTO contents (id, user_id, title, body, created_at, topic_id, upvote_count, cover_photo, summary)
+                SELECT CASE WHEN i = 1 THEN CAST(? AS uuid) ELSE gen_random_uuid() END, 'owner', 'title ' || i,
+                       'body ' || i, now() - i * interval '1 minute', 'topic', 0, 'https://example.com/' || i || '.png',
+                       'summary ' || i
+                FROM generate_series(1, 30) i
+                WHERE NOT EXISTS (SELECT 1 FROM contents)
+                """, CONTENT_ID);
+        jdbc.update("""
+                INSERT INTO projects (id, user_id, title, body, type, priority, created_at)
+                VALUES (CAST(? AS uuid), 'owner', 'project', 'project body', 'FREE', 0, now())
+                ON CONFLICT DO NOTHING
+                """, PROJECT_ID);
+        jdbc.update("""
+                INSERT INTO project_responses (id, user_id, bkash, project_id, body, is_varified, created_at)
+                VALUES (CAST(? AS uuid), 'reader', NULL, CAST(? AS uuid), 'response', false, now())
+                ON CONFLICT DO NOTHING
+                """, RESPONSE_ID, PROJECT_ID);
+    }
+
+    @Test
+    void contentListing() throws Exception {
+        mockMvc.perform(get("/v1/contents").param("countPolicy", "NONE").with(as("reader")))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(1))
+                .andExpect(sql().rowsAtMost(11));
+        mockMvc.perform(get("/v1/contents").with(as("reader")))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(2));
+    }
+
+    @Test
+    void contentDetail() throws Exception {
+        mockMvc.perform(get("/v1/contents/{id}", CONTENT_ID).with(as("reader")))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(2));
+    }
+
+    @Test
+    void vote() throws Exception {
+        mockMvc.perform(put("/v1/contents/{id}/vote", CONTENT_ID).with(as("reader")))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(2));
+    }
+
+    @Test
+    void responseVerification() throws Exception {
+        // load with the project, update, score event
+        mockMvc.perform(put("/v1/projects/responses/{id}", RESPONSE_ID).param("verify", "true").with(as("owner")))
+                .andExpect(status().isNoContent())
+                .andExpect(sql().statementsAtMost(3));
+    }
+
+    @Test
+    void userInfo() throws Exception {
+        mockMvc.perform(get("/v1/users").with(as("reader")))
+                .andExpect(status().isOk())
+                .andExpect(sql().statementsAtMost(2));
+    }
+
+    private static RequestPostProcessor as(String userId) {
+        return jwt().jwt(token -> token.subject(userId))
+                .authorities(new SimpleGrantedAuthority("SCOPE_" + ("owner".equals(userId) ? "ADMIN" : "USER")));
+    }
+}
@@ -0,0 +1,420 @@
+package com.sadi.backend.repositories;
+
+import com.sadi.backend.dtos.requests.ContentFilter;
+import com.sadi.backend.dtos.requests.ProjectFilter;
+import com.sadi.backend.dtos.responses.ContentShortResponse;
+import com.sadi.backend.dtos.responses.CursorPageResponse;
+import com.sadi.backend.entities.Content;
+import com.sadi.backend.entities.Project;
+import com.sadi.backend.enums.CountPolicy;
+import com.sadi.backend.services.ContentService;
+import com.sadi.backend.services.ProjectResponseService;
+import com.sadi.backend.services.ProjectService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Seeds a realistically sized dataset on a throwaway Postgres, runs the services' listing, search and
+ * lookup paths, and EXPLAINs the statements Hibernate actually sent, with the parameters it bound. A
+ * change to a specification, a repository query or the schema that drops or bypasses an index fails
+ * here with the offending plan in the message.
+ */
+@SpringBootTest
+@ActiveProfiles("local-auth")
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanRegressionTests {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    // bypasses the application's data source, so EXPLAINs and fixtures are not recorded
+    static JdbcTemplate jdbc;
+    static String contentId;
+    static String projectId;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("cors.origins", () -> "http://localhost");
+    }
+
+    @Autowired
+    ContentService contentService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    ProjectResponseService projectResponseService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.execute("""
+                INSERT INTO users (id, email, full_name, role, profile_picture, credit, score, created_at)
+                SELECT 'user-' || i, 'user' || i || '@example.com', 'name ' || i, 'USER', NULL, 0,
+                       floor(1000 * power(random(), 4))::bigint, now()
+                FROM generate_series(1, 20000) i
+                """);
+        jdbc.execute("""
+                INSERT INTO content_topics (id, description, created_at)
+                SELECT 'topic-' || i, 'Topic ' || i, now() FROM generate_series(1, 20) i
+                """);
+        jdbc.execute("""
+                INSERT INTO contents (id, user_id, title, body, created_at, topic_id, upvote_count, cover_photo, summary)
+                SELECT gen_random_uuid(), 'user-' || (1 + i % 500), 'title ' || i, 'body of content ' || i,
+                       now() - (i || ' minutes')::interval, 'topic-' || (1 + floor(20 * power(random(), 2)))::int,
+                       floor(5000 * power(random(), 6))::int, 'https://example.com/' || i || '.png', 'summary ' || i
+                FROM generate_series(1, 200000) i
+                """);
+        jdbc.execute("""
+                INSERT INTO content_votes (id, user_id, content_id)
+                SELECT gen_random_uuid(), 'user-' || (1 + floor(random() * 20000))::int, c.id
+                FROM contents c, generate_series(1, 2)
+                ON CONFLICT (content_id, user_id) DO NOTHING
+                """);
+        jdbc.execute("""
+                INSERT INTO projects (id, user_id, title, body, type, priority, created_at)
+                SELECT gen_random_uuid(), 'user-' || (1 + i % 200), 'project ' || i, 'project body ' || i,
+                       CASE WHEN i % 3 = 0 THEN 'PAID' ELSE 'FREE' END, i % 10, now() - (i || ' minutes')::interval
+                FROM generate_series(1, 20000) i
+                """);
+        jdbc.execute("""
+                INSERT INTO project_responses (id, user_id, bkash, project_id, body, is_varified, created_at)
+                SELECT gen_random_uuid(), 'user-' || (1 + floor(random() * 20000))::int, NULL, p.id, 'response',
+                       random() < 0.3, now() - (g || ' seconds')::interval
+                FROM projects p, generate_series(1, 10) g
+                """);
+        jdbc.execute("VACUUM ANALYZE");
+
+        contentId = jdbc.queryForObject("SELECT id FROM contents ORDER BY created_at DESC LIMIT 1", String.class);
+        projectId = jdbc.queryForObject("SELECT id FROM projects ORDER BY created_at DESC LIMIT 1", String.class);
+    }
+
+    @BeforeEach
+    void authenticate() {
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("user-1", null));
+    }
+
+    @AfterEach
+    void clearAuthentication() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void contentFeedByVotesWalksTheVoteIndex() {
+        String plan = explain("contents", () -> listContents(noContentFilter(), Content.SortCategory.VOTES));
+        assertNoSeqScan(plan, "contents");
+        assertNoSeqScan(plan, "content_votes");
+    }
+
+    @Test
+    void contentFeedKeysetSeeksIntoTheVoteIndex() {
+        String cursor = firstFeedPage(Content.SortCategory.VOTES).nextCursor();
+        String plan = explain("contents", () -> contentService.filterContentsAfter(
+                contentService.getFilterSpecification(noContentFilter()), Content.SortCategory.VOTES,
+                Sort.Direction.DESC, cursor, 10));
+        assertNoSeqScan(plan, "contents");
+    }
+
+    @Test
+    void contentFeedByHotnessWalksTheHotScoreIndex() {
+        String cursor = firstFeedPage(Content.SortCategory.HOT).nextCursor();
+        String plan = explain("contents", () -> contentService.filterContentsAfter(
+                contentService.getFilterSpecification(noContentFilter()), Content.SortCategory.HOT,
+                Sort.Direction.DESC, cursor, 10));
+        assertNoSeqScan(plan, "contents");
+        assertThat(plan).as("plan:%n%s", plan).doesNotContain("Sort");
+    }
+
+    @Test
+    void hotScoreFollowsUpvoteUpdates() {
+        double before = jdbc.queryForObject("SELECT hot_score FROM contents WHERE id = ?::uuid", Double.class, contentId);
+        jdbc.update("UPDATE contents SET upvote_count = upvote_count + 1000 WHERE id = ?::uuid", contentId);
+        double after = jdbc.queryForObject("SELECT hot_score FROM contents WHERE id = ?::uuid", Double.class, contentId);
+        jdbc.update("UPDATE contents SET upvote_count = upvote_count - 1000 WHERE id = ?::uuid", contentId);
+        assertThat(after).isGreaterThan(before);
+    }
+
+    @Test
+    void contentFeedByTopicAndDateUsesTopicIndex() {
+        String plan = explain("contents", () -> listContents(
+                new ContentFilter(null, null, null, null, null, "topic-7"), Content.SortCategory.CREATED_AT));
+        assertNoSeqScan(plan, "contents");
+    }
+
+    @Test
+    void contentFeedByAuthorUsesAuthorIndex() {
+        String plan = explain("contents", () -> listContents(
+                new ContentFilter(null, null, "user-42", null, null, null), Content.SortCategory.CREATED_AT));
+        assertNoSeqScan(plan, "contents");
+    }
+
+    @Test
+    void contentTitleSearchUsesTrigramIndex() {
+        String plan = explain("contents", () -> listContents(
+                new ContentFilter(null, null, null, "Title 12345", null, null), Content.SortCategory.VOTES));
+        assertNoSeqScan(plan, "contents");
+    }
+
+    @Test
+    void contentFullTextSearchUsesTheSearchVectorIndex() {
+        String plan = explain("contents", () -> contentService.searchContents("content 12345", Instant.EPOCH,
+                Instant.now(), "topic-3", PageRequest.of(0, 10)));
+        assertNoSeqScan(plan, "contents");
+    }
+
+    @Test
+    void projectFullTextSearchUsesTheSearchVectorIndex() {
+        String plan = explain("projects", () -> projectService.searchProjects("project 1234", Instant.EPOCH,
+                Instant.now(), null, PageRequest.of(0, 10)));
+        assertNoSeqScan(plan, "projects");
+    }
+
+    @Test
+    void mixedScriptTextIsStemmedAndTokenized() {
+        Boolean matches = jdbc.queryForObject("""
+                SELECT to_tsvector('bn_en', 'Running the বাংলা ব্লগ') @@ websearch_to_tsquery('bn_en', 'run বাংলা')
+                """, Boolean.class);
+        assertThat(matches).isTrue();
+    }
+
+    @Test
+    void authorNameSearchUsesTrigramIndex() {
+        String plan = explain("contents", () -> listContents(
+                new ContentFilter(null, null, null, null, "Name 1234", null), Content.SortCategory.VOTES));
+        assertNoSeqScan(plan, "users");
+    }
+
+    @Test
+    void voteLookupUsesUniqueIndex() {
+        String plan = explain("contents", () -> contentService.getContentState(UUID.fromString(contentId)));
+        assertNoSeqScan(plan, "content_votes");
+    }
+
+    @Test
+    void leaderboardPageWalksTheScoreIndex() {
+        String plan = explain("users", () -> userRepository.findUsersLeaderboard(PageRequest.of(0, 10)));
+        assertNoSeqScan(plan, "users");
+    }
+
+    @Test
+    void userRankCountsFromTheScoreIndex() {
+        String plan = explain("users", () -> userRepository.getUserRank(5L));
+        assertNoSeqScan(plan, "users");
+    }
+
+    @Test
+    void projectListByPriorityWalksThePriorityIndex() {
+        String plan = explain("projects", () -> projectService.filterProjects(
+                projectService.getSpecification(new ProjectFilter(null, null, null, null, null, null),
+                        Project.SortCategory.PRIORITY, Sort.Direction.DESC),
+                Project.SortCategory.PRIORITY, PageRequest.of(0, 10), CountPolicy.NONE,
+                new ProjectFilter(null, null, null, null, null, null).filterKey()));
+        assertNoSeqScan(plan, "projects");
+    }
+
+    @Test
+    void projectResponsesByVerificationUseProjectIndex() {
+        String plan = explain("project_responses", () -> projectResponseService.getResponses(
+                UUID.fromString(projectId), false, PageRequest.of(0, 10, Sort.by("createdAt"))));
+        assertNoSeqScan(plan, "project_responses");
+    }
+
+    @Test
+    void projectResponsesWithoutVerificationFilterUseProjectIndex() {
+        String plan = explain("project_responses", () -> projectResponseService.getResponses(
+                UUID.fromString(projectId), null, PageRequest.of(0, 10, Sort.by("createdAt"))));
+        assertNoSeqScan(plan, "project_responses");
+    }
+
+    private static ContentFilter noContentFilter() {
+        return new ContentFilter(null, null, null, null, null, null);
+    }
+
+    private void listContents(ContentFilter filter, Content.SortCategory sortType) {
+        contentService.filterContents(contentService.getSpecification(filter, sortType, Sort.Direction.DESC),
+                sortType, PageRequest.of(2, 10), CountPolicy.NONE, filter.filterKey());
+    }
+
+    private CursorPageResponse<ContentShortResponse> firstFeedPage(Content.SortCategory sortType) {
+        return contentService.filterContentsAfter(contentService.getFilterSpecification(noContentFilter()),
+                sortType, Sort.Direction.DESC, null, 10);
+    }
+
+    /**
+     * Runs the call and EXPLAINs the first query it sent that reads from the table.
+     */
+    private static String explain(String table, Runnable call) {
+        List<RecordedStatement> statements = RecordingDataSource.record(call);
+        Pattern readsTable = Pattern.compile("(?is)^\\s*(with|select)\\b.*\\bfrom\\s+" + table + "\\b.*");
+        RecordedStatement statement = statements.stream()
+                .filter(recorded -> readsTable.matcher(recorded.sql()).matches())
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No query on " + table + " among " + statements));
+        return jdbc.execute((Connection connection) -> {
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+                statement.bind(explain);
+                List<String> lines = new ArrayList<>();
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        lines.add(rs.getString(1));
+                    }
+                }
+                return statement.sql() + "\n" + String.join("\n", lines);
+            }
+        });
+    }
+
+    private static void assertNoSeqScan(String plan, String table) {
+        assertThat(plan).as("plan:%n%s", plan).doesNotContain("Seq Scan on " + table + " ");
+    }
+
+    /**
+     * A prepared statement as the application sent it: its SQL and the setter calls that bound it.
+     */
+    record RecordedStatement(String sql, List<Binding> bindings) {
+        void bind(PreparedStatement statement) throws SQLException {
+            for (Binding binding : bindings) {
+                try {
+                    binding.setter().invoke(statement, binding.args());
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                } catch (InvocationTargetException e) {
+                    throw (SQLException) e.getCause();
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql;
+        }
+    }
+
+    record Binding(Method setter, Object[] args) {
+    }
+
+    /**
+     * Records the prepared statements issued on the calling thread while {@link #record} runs.
+     */
+    static class RecordingDataSource extends DelegatingDataSource {
+        private static final ThreadLocal<List<RecordedStatement>> RECORDING = new ThreadLocal<>();
+
+        RecordingDataSource(DataSource target) {
+            super(target);
+        }
+
+        static List<RecordedStatement> record(Runnable call) {
+            List<RecordedStatement> statements = Collections.synchronizedList(new ArrayList<>());
+            RECORDING.set(statements);
+            try {
+                call.run();
+            } finally {
+                RECORDING.remove();
+            }
+            return statements;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        List<RecordedStatement> statements = RECORDING.get();
+                        if (statements != null && method.getName().equals("prepareStatement")) {
+                            return recording((PreparedStatement) result, (String) args[0], statements);
+                        }
+                        return result;
+                    });
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql,
+                                                   List<RecordedStatement> statements) {
+            List<Binding> bindings = new ArrayList<>();
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().startsWith("set") && args != null && args.length >= 2
+                                && args[0] instanceof Integer) {
+                            bindings.add(new Binding(method, args.clone()));
+                        } else if (method.getName().startsWith("execute")) {
+                            statements.add(new RecordedStatement(sql, List.copyOf(bindings)));
+                        } else if (method.getName().equals("clearParameters")) {
+                            bindings.clear();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingConfig {
+
+        @Bean
+        static BeanPostProcessor recordingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof RecordingDataSource)
+                            ? new RecordingDataSource(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
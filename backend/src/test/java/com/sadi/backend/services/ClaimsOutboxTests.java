@@ -0,0 +1,25 @@
+package com.sadi.backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ClaimsOutboxTests {
+    private final ClaimsOutbox outbox = new ClaimsOutbox(mock(JdbcTemplate.class), mock(ClaimsGateway.class),
+            new SimpleMeterRegistry(), 50, 10, Duration.ofSeconds(1), Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+    @Test
+    void backoffDoublesWithJitterAndIsCapped() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(outbox.backoff(1)).isBetween(Duration.ofMillis(500), Duration.ofSeconds(1));
+            assertThat(outbox.backoff(4)).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(8));
+            assertThat(outbox.backoff(20)).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(10));
+            assertThat(outbox.backoff(80)).isBetween(Duration.ofMinutes(5), Duration.ofMinutes(10));
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.sadi.backend.services;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProjectResponseExporterTests {
+
+    @Test
+    void csvValuesAreQuotedOnlyWhenNeeded() {
+        assertThat(ProjectResponseExporter.csv(null)).isEmpty();
+        assertThat(ProjectResponseExporter.csv("01700000000")).isEqualTo("01700000000");
+        assertThat(ProjectResponseExporter.csv("আমি সাহায্য করতে পারি")).isEqualTo("আমি সাহায্য করতে পারি");
+        assertThat(ProjectResponseExporter.csv("a, b")).isEqualTo("\"a, b\"");
+        assertThat(ProjectResponseExporter.csv("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+        assertThat(ProjectResponseExporter.csv("line\nbreak")).isEqualTo("\"line\nbreak\"");
+    }
+
+    @Test
+    void formulasAreNeutralized() {
+        assertThat(ProjectResponseExporter.csv("=HYPERLINK(\"x\")")).isEqualTo("\"'=HYPERLINK(\"\"x\"\")\"");
+        assertThat(ProjectResponseExporter.csv("@SUM(A1)")).isEqualTo("'@SUM(A1)");
+    }
+}
@@ -0,0 +1,49 @@
+package com.sadi.backend.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTests {
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RateLimiter limiter = new RateLimiter(
+            new MockEnvironment()
+                    .withProperty("rate-limit.votes.capacity", "3")
+                    .withProperty("rate-limit.votes.refill-period", "2s"),
+            meterRegistry, Duration.ofMinutes(10), 1_000, now::get);
+
+    @Test
+    void allowsBurstThenThrottlesUntilRefill() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("votes", "alice")).isEmpty();
+        }
+        assertThat(limiter.tryAcquire("votes", "alice")).contains(Duration.ofSeconds(2));
+
+        now.addAndGet(Duration.ofMillis(1_500).toNanos());
+        assertThat(limiter.tryAcquire("votes", "alice")).contains(Duration.ofMillis(500));
+
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(limiter.tryAcquire("votes", "alice")).isEmpty();
+        assertThat(limiter.tryAcquire("votes", "alice")).isPresent();
+
+        assertThat(meterRegistry.get("rate-limit.throttled").tag("policy", "votes").counter().count())
+                .isEqualTo(3);
+    }
+
+    @Test
+    void bucketsArePerKeyAndPerPolicy() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("votes", "alice");
+        }
+        assertThat(limiter.tryAcquire("votes", "alice")).isPresent();
+        assertThat(limiter.tryAcquire("votes", "bob")).isEmpty();
+        // unconfigured policies fall back to 10 per second
+        assertThat(limiter.tryAcquire("submissions", "alice")).isEmpty();
+    }
+}
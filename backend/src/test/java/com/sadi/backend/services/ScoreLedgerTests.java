@@ -0,0 +1,101 @@
+package com.sadi.backend.services;
+
+import com.sadi.backend.enums.ScoreEventType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the statements that write {@code users.score} and {@code users.credit} against Postgres: the
+ * opening balances V9 seeds from pre-ledger totals, the aggregator's fold and a rebuild from the ledger.
+ */
+@SpringBootTest
+@ActiveProfiles("local-auth")
+@Testcontainers(disabledWithoutDocker = true)
+class ScoreLedgerTests {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("cors.origins", () -> "http://localhost");
+        // the tests fold events themselves
+        registry.add("scores.aggregate-interval-ms", () -> "3600000");
+    }
+
+    @Autowired
+    ScoreLedger scoreLedger;
+
+    @BeforeAll
+    static void migrateWithPreLedgerTotals() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target("8").load().migrate();
+        jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("""
+                INSERT INTO users (id, email, full_name, role, profile_picture, credit, score, created_at)
+                VALUES ('veteran', 'veteran@example.com', 'Veteran', 'USER', NULL, 3, 120, now()),
+                       ('newcomer', 'newcomer@example.com', 'Newcomer', 'USER', NULL, 0, 0, now())
+                """);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+    }
+
+    @Test
+    void openingBalancesAreSeededForExistingTotalsOnly() {
+        assertThat(jdbc.queryForList("""
+                SELECT user_id, score_delta, credit_delta, aggregated FROM score_events
+                WHERE type = 'OPENING_BALANCE'
+                """)).containsExactly(Map.of(
+                "user_id", "veteran", "score_delta", 120L, "credit_delta", 3L, "aggregated", true));
+    }
+
+    @Test
+    void aggregationFoldsEventsAndRebuildRestoresTotals() {
+        scoreLedger.record("newcomer", ScoreEventType.RESPONSE_VERIFIED, 2, null);
+        scoreLedger.record("newcomer", ScoreEventType.RESPONSE_UNVERIFIED, 1, null);
+        scoreLedger.record("veteran", ScoreEventType.UPVOTES_RECEIVED, 5, null);
+
+        scoreLedger.aggregate();
+        assertThat(totals("newcomer")).containsExactly(10L, 1L);
+        assertThat(totals("veteran")).containsExactly(125L, 3L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM score_events WHERE NOT aggregated", Long.class))
+                .isZero();
+
+        // one total corrupted, one event not folded yet
+        jdbc.update("UPDATE users SET score = 999, credit = 42 WHERE id = 'newcomer'");
+        scoreLedger.record("veteran", ScoreEventType.RESPONSE_VERIFIED, 1, null);
+
+        assertThat(scoreLedger.rebuild()).isEqualTo(2);
+        assertThat(totals("newcomer")).containsExactly(10L, 1L);
+        assertThat(totals("veteran")).containsExactly(135L, 4L);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM score_events WHERE NOT aggregated", Long.class))
+                .isZero();
+
+        assertThat(scoreLedger.rebuild()).isZero();
+    }
+
+    private static Long[] totals(String userId) {
+        return jdbc.queryForObject("SELECT score, credit FROM users WHERE id = ?",
+                (rs, i) -> new Long[]{rs.getLong("score"), rs.getLong("credit")}, userId);
+    }
+}
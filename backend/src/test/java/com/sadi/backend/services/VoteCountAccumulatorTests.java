@@ -0,0 +1,81 @@
+package com.sadi.backend.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VoteCountAccumulatorTests {
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final VoteCountAccumulator accumulator = new VoteCountAccumulator(jdbcTemplate, transactionManager,
+            meterRegistry, mock(ScoreLedger.class), 4);
+
+    @Test
+    void deltasSurviveATransactionThatFailsToOpen() {
+        UUID contentId = UUID.randomUUID();
+        accumulator.record(contentId, 1);
+        accumulator.record(contentId, 1);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("pool exhausted"))
+                .thenReturn(new SimpleTransactionStatus());
+
+        accumulator.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertThat(accumulator.pending(contentId)).isEqualTo(2);
+
+        accumulator.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).containsExactly(new Object[]{2, contentId});
+        assertThat(accumulator.pending(contentId)).isZero();
+    }
+
+    @Test
+    void lagKeepsGrowingWhileFlushesFail() throws InterruptedException {
+        accumulator.record(UUID.randomUUID(), 1);
+        when(transactionManager.getTransaction(any())).thenThrow(new CannotCreateTransactionException("db down"));
+        Thread.sleep(50);
+
+        accumulator.flush();
+        accumulator.flush();
+        assertThat(meterRegistry.get("votes.flush.lag").gauge().value()).isGreaterThanOrEqualTo(0.05);
+    }
+
+    @Test
+    void deltasStayPendingUntilTheFlushCommits() {
+        UUID contentId = UUID.randomUUID();
+        accumulator.record(contentId, 1);
+        accumulator.record(contentId, 1);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        AtomicInteger pendingDuringFlush = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            pendingDuringFlush.set(accumulator.pending(contentId));
+            return new int[]{1};
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        accumulator.flush();
+        assertThat(pendingDuringFlush).hasValue(2);
+        assertThat(accumulator.pending(contentId)).isZero();
+    }
+}
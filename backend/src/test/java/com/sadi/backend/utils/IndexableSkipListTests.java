@@ -0,0 +1,46 @@
+package com.sadi.backend.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexableSkipListTests {
+
+    @Test
+    void ranksAndPositionsMatchASortedSet() {
+        Random random = new Random(42);
+        IndexableSkipList<Integer> list = new IndexableSkipList<>(Comparator.reverseOrder());
+        TreeSet<Integer> expected = new TreeSet<>(Comparator.reverseOrder());
+
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(list.remove(value)).isEqualTo(expected.remove(value));
+            } else {
+                assertThat(list.add(value)).isEqualTo(expected.add(value));
+            }
+            if (i % 500 == 0) {
+                assertMatches(list, expected, random.nextInt(2_000));
+            }
+        }
+        assertMatches(list, expected, 1_000);
+    }
+
+    private static void assertMatches(IndexableSkipList<Integer> list, TreeSet<Integer> expected, int probe) {
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertThat(list.size()).isEqualTo(sorted.size());
+        assertThat(list.range(0, sorted.size())).isEqualTo(sorted);
+        assertThat(list.rank(probe)).isEqualTo(expected.headSet(probe, false).size());
+        if (!sorted.isEmpty()) {
+            int index = sorted.size() / 2;
+            assertThat(list.get(index)).isEqualTo(sorted.get(index));
+            assertThat(list.range(index, 5)).isEqualTo(sorted.subList(index, Math.min(index + 5, sorted.size())));
+        }
+    }
+}